@@ -0,0 +1,99 @@
+import cubeverse.bench.Hooks;
+
+import javax.swing.ImageIcon;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * {@link Hooks} 的实现：与游戏代码同在默认包，可以访问包内可见的方法。
+ */
+public class BenchHooks implements Hooks {
+    private Board board;
+    private MatchSet matches;
+    private MoveGenerator generator;
+    private MoveGenerator arrayGenerator;
+    private BoardView view;
+    private int[] moveA, moveB;
+    private final int[] changed = new int[2];
+
+    @Override
+    public void setupBoard(int rows, int cols, int types, long seed, int moveCount) {
+        board = new GameSimulator(rows, cols, types, seed).getBoard();
+        matches = new MatchSet(board.size());
+        generator = new MoveGenerator(board);
+        arrayGenerator = new MoveGenerator(board, false);
+        view = new BoardView(board, new Animator(), 30, 30, 5, 5);
+        moveA = new int[moveCount];
+        moveB = new int[moveCount];
+        Random rng = new Random(seed);
+        RandomBot bot = new RandomBot();
+        for (int i = 0; i < moveCount; i++) {
+            int move = bot.chooseMove(board, rng);
+            moveA[i] = Moves.first(move);
+            moveB[i] = Moves.second(move, cols);
+        }
+    }
+
+    @Override
+    public int fullScan() {
+        return Match3Manager.findMatches(board, matches);
+    }
+
+    @Override
+    public int bitboardScan() {
+        return Match3Manager.findMatchesFast(board, matches);
+    }
+
+    @Override
+    public int swapAndScan(int i) {
+        int a = moveA[i], b = moveB[i];
+        board.swap(a, b);
+        changed[0] = a;
+        changed[1] = b;
+        int n = Match3Manager.findMatchesAt(board, changed, 2, matches);
+        board.swap(a, b);
+        return n;
+    }
+
+    @Override
+    public int generateMoves() {
+        return generator.generate();
+    }
+
+    @Override
+    public int generateMovesArray() {
+        return arrayGenerator.generate();
+    }
+
+    @Override
+    public boolean neighbors(int i) {
+        return board.areNeighbors(moveA[i], moveB[i]);
+    }
+
+    @Override
+    public int cellAt(int x, int y) {
+        return view.cellAt(x, y);
+    }
+
+    @Override
+    public int decodePcm(String resourcePath) {
+        SoundManager.CachedAudio ca = SoundManager.decodePcm(resourcePath, false);
+        return ca == null ? -1 : (int) ca.bytes();
+    }
+
+    @Override
+    public Object scaleSprite(String resourcePath, int width, int height) {
+        return SpriteAtlas.scale(SpriteAtlas.source(resourcePath), width, height);
+    }
+
+    @Override
+    public Object scaleLegacy(String resourcePath, int width, int height) {
+        ImageIcon icon = new ImageIcon(BenchHooks.class.getResource(resourcePath));
+        Image scaled = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
+        // getScaledInstance 是惰性的，画一次才真正缩放
+        BufferedImage sink = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        sink.getGraphics().drawImage(new ImageIcon(scaled).getImage(), 0, 0, null);
+        return sink;
+    }
+}
@@ -0,0 +1,51 @@
+package cubeverse.bench;
+
+/**
+ * 游戏代码位于默认包，而 JMH 要求基准类有具名包，无法直接 import。
+ * 这里定义一组接口，由默认包中的 BenchHooks 实现，基准类通过它调用热点代码。
+ * 接口调用是单态的，JIT 会内联，不影响测量。
+ */
+public interface Hooks {
+
+    /** 生成一个稳定（无可消除块）的随机棋盘，并预先列出 moveCount 个随机合法交换 */
+    void setupBoard(int rows, int cols, int types, long seed, int moveCount);
+
+    /** 全盘扫描判定 */
+    int fullScan();
+
+    /** 位棋盘扫描（放不下 64 位时退回数组实现） */
+    int bitboardScan();
+
+    /** 执行第 i 个预备交换后做增量判定，再换回来（棋盘保持不变） */
+    int swapAndScan(int i);
+
+    /** 生成全部可消除交换，返回数量（<= 64 格时用位棋盘） */
+    int generateMoves();
+
+    /** 同上，但强制使用数组实现 */
+    int generateMovesArray();
+
+    /** 第 i 个预备交换的两格是否相邻（交换合法性校验） */
+    boolean neighbors(int i);
+
+    /** 像素 -> 格子换算（点击命中） */
+    int cellAt(int x, int y);
+
+    /** 解码一个音频资源（不走缓存，含转换为混音格式），返回混音样本的字节数 */
+    int decodePcm(String resourcePath);
+
+    /** SpriteAtlas 的预缩放（不走缓存） */
+    Object scaleSprite(String resourcePath, int width, int height);
+
+    /** 旧做法：ImageIcon + getScaledInstance(SCALE_SMOOTH)，并等待真正缩放完成 */
+    Object scaleLegacy(String resourcePath, int width, int height);
+
+    /** 创建默认包中的实现 */
+    static Hooks create() {
+        try {
+            return (Hooks) Class.forName("BenchHooks").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchHooks not found on classpath", e);
+        }
+    }
+}
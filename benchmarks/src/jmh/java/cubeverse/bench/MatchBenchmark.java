@@ -0,0 +1,59 @@
+package cubeverse.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三消判定热点：全盘扫描（数组 / 位棋盘）vs 交换后的增量判定、全部可消除交换的生成，覆盖不同棋盘尺寸与类型数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MatchBenchmark {
+
+    private static final int MOVES = 1024;
+
+    /** 行 x 列 */
+    @Param({"5x8", "8x8", "20x20", "100x100"})
+    public String size;
+
+    @Param({"4", "6", "10"})
+    public int types;
+
+    private Hooks hooks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] rc = size.split("x");
+        hooks = Hooks.create();
+        hooks.setupBoard(Integer.parseInt(rc[0]), Integer.parseInt(rc[1]), types, 42L, MOVES);
+    }
+
+    @Benchmark
+    public int fullScan() {
+        return hooks.fullScan();
+    }
+
+    @Benchmark
+    public int bitboardScan() {
+        return hooks.bitboardScan();
+    }
+
+    @Benchmark
+    public int incrementalAfterSwap() {
+        next = (next + 1) & (MOVES - 1);
+        return hooks.swapAndScan(next);
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return hooks.generateMoves();
+    }
+
+    @Benchmark
+    public int generateMovesArray() {
+        return hooks.generateMovesArray();
+    }
+}
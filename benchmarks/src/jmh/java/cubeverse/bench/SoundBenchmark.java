@@ -0,0 +1,29 @@
+package cubeverse.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音效解码：SoundManager.loadPcm 的解码部分（不走缓存，含转换为混音格式）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SoundBenchmark {
+
+    @Param({"/sounds/move.wav", "/sounds/destroy.wav"})
+    public String sound;
+
+    private Hooks hooks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hooks = Hooks.create();
+    }
+
+    @Benchmark
+    public int decodePcm() {
+        return hooks.decodePcm(sound);
+    }
+}
@@ -0,0 +1,35 @@
+package cubeverse.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方块贴图缩放：SpriteAtlas 的逐级双线性预缩放 vs 旧的 ImageIcon + getScaledInstance(SCALE_SMOOTH)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpriteBenchmark {
+
+    @Param({"30", "64"})
+    public int tileSize;
+
+    private Hooks hooks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty("java.awt.headless", "true");
+        hooks = Hooks.create();
+    }
+
+    @Benchmark
+    public Object atlasScale() {
+        return hooks.scaleSprite("/Block_001.png", tileSize, tileSize);
+    }
+
+    @Benchmark
+    public Object legacyScale() {
+        return hooks.scaleLegacy("/Block_001.png", tileSize, tileSize);
+    }
+}
@@ -0,0 +1,39 @@
+package cubeverse.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 交换合法性校验：模型坐标上的相邻判断与像素 -> 格子换算（原 ImageButton.areNeighbors / rcOf）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwapBenchmark {
+
+    private static final int MOVES = 1024;
+
+    private Hooks hooks;
+    private int next;
+    private int x, y;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        hooks = Hooks.create();
+        hooks.setupBoard(5, 8, 10, 42L, MOVES);
+    }
+
+    @Benchmark
+    public boolean neighbors() {
+        next = (next + 1) & (MOVES - 1);
+        return hooks.neighbors(next);
+    }
+
+    @Benchmark
+    public int cellAt() {
+        x = (x + 7) % 280;
+        y = (y + 3) % 175;
+        return hooks.cellAt(x, y);
+    }
+}
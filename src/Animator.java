@@ -0,0 +1,175 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全局动画时钟：一个 Swing Timer 驱动所有进行中的补间（交换、下落、消除……）。
+ * 进度按 System.nanoTime() 计算，EDT 繁忙时动画不会被拉长，只会掉帧；
+ * 每帧先推进全部补间，再对涉及的组件各 repaint 一次；没有补间时时钟自动停下。
+ * 补间可以只声明组件中的一块脏区域，同一组件本帧的脏区域合并后重绘，大棋盘上不必整块重绘。
+ */
+public class Animator {
+
+    /** 目标帧间隔（约 60 FPS） */
+    public static final int FRAME_MS = 16;
+
+    /** 缓动函数：输入线性进度 t ∈ [0,1]，输出缓动后的进度 */
+    public interface Easing {
+        float apply(float t);
+    }
+
+    public static final Easing LINEAR = t -> t;
+    public static final Easing EASE_IN_QUAD = t -> t * t;
+    public static final Easing EASE_OUT_QUAD = t -> t * (2f - t);
+    public static final Easing EASE_IN_OUT_CUBIC = t -> t < 0.5f
+            ? 4f * t * t * t
+            : 1f - (float) Math.pow(-2f * t + 2f, 3) / 2f;
+    /** 末尾轻微回弹（适合下落落地） */
+    public static final Easing EASE_OUT_BACK = t -> {
+        float c1 = 1.70158f, c3 = c1 + 1f, u = t - 1f;
+        return 1f + c3 * u * u * u + c1 * u * u;
+    };
+
+    /** 补间：每帧以缓动后的进度调用 */
+    public interface Tween {
+        void update(float t);
+    }
+
+    private static final class Active {
+        final Component target;
+        final Rectangle region;   // 脏区域；null 表示整个组件
+        final Tween tween;
+        final Easing easing;
+        final long startNs;
+        final long durationNs;
+        final Runnable onDone;
+
+        Active(Component target, Rectangle region, Tween tween, Easing easing,
+               long startNs, long durationNs, Runnable onDone) {
+            this.target = target;
+            this.region = region;
+            this.tween = tween;
+            this.easing = easing;
+            this.startNs = startNs;
+            this.durationNs = durationNs;
+            this.onDone = onDone;
+        }
+    }
+
+    private final List<Active> active = new ArrayList<>();
+    private final List<Active> finished = new ArrayList<>();
+    private final List<Component> dirty = new ArrayList<>();
+    private final List<Rectangle> dirtyRegions = new ArrayList<>(); // 与 dirty 对应；null 表示整个组件
+    private final Timer timer;
+    private long lastTickNs;      // 上一帧时间（计帧间隔用；时钟停下后归零）
+
+    public Animator() {
+        timer = new Timer(FRAME_MS, e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * 启动一个补间（需在 EDT 调用）。
+     *
+     * @param target     每帧需要重绘的组件（可为 null）
+     * @param durationMs 时长；<= 0 时在下一帧直接到终点
+     * @param onDone     结束回调（可为 null），在该帧所有补间更新之后执行
+     */
+    public void animate(Component target, int durationMs, Easing easing, Tween tween, Runnable onDone) {
+        animate(target, null, durationMs, easing, tween, onDone);
+    }
+
+    /**
+     * 同上，但每帧只重绘 target 中的 region（组件坐标；null 表示整个组件）。
+     * region 须覆盖补间期间所有被画到的位置。
+     */
+    public void animate(Component target, Rectangle region, int durationMs, Easing easing, Tween tween,
+                        Runnable onDone) {
+        long durationNs = Math.max(0, durationMs) * 1_000_000L;
+        active.add(new Active(target, region == null ? null : new Rectangle(region), tween,
+                easing == null ? LINEAR : easing, System.nanoTime(), durationNs, onDone));
+        if (!timer.isRunning()) timer.start();
+    }
+
+    /** 是否还有进行中的补间 */
+    public boolean isBusy() { return !active.isEmpty(); }
+
+    /**
+     * 当前帧的时间戳（补间内调用时，本帧所有补间拿到同一个值）；时钟停着时返回当前时间。
+     * 需要按真实时间积分的补间（例如粒子）应使用它，而不是各自调用 System.nanoTime()。
+     */
+    public long frameTimeNanos() {
+        return lastTickNs != 0 ? lastTickNs : System.nanoTime();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        PerfEvents.AnimationFrame event = PerfEvents.ANIMATION_FRAME.isEnabled() ? new PerfEvents.AnimationFrame() : null;
+        if (event != null) event.begin();
+        long interval = lastTickNs == 0 ? 0 : now - lastTickNs;
+        if (interval > 0) Metrics.FRAME.record(interval);
+        lastTickNs = now;
+        int tweens = active.size();
+
+        // 1) 推进全部补间
+        for (int i = 0; i < active.size(); i++) {
+            Active a = active.get(i);
+            float t = a.durationNs == 0 ? 1f : Math.min(1f, (now - a.startNs) / (float) a.durationNs);
+            a.tween.update(a.easing.apply(t));
+            markDirty(a.target, a.region);
+            if (t >= 1f) finished.add(a);
+        }
+
+        // 2) 移除已结束的，再执行回调（回调里可以继续 animate）
+        if (!finished.isEmpty()) {
+            active.removeAll(finished);
+            for (int i = 0; i < finished.size(); i++) {
+                Runnable done = finished.get(i).onDone;
+                if (done != null) done.run();
+            }
+            finished.clear();
+        }
+
+        // 3) 每个组件本帧只重绘一次（合并后的脏区域）
+        for (int i = 0; i < dirty.size(); i++) {
+            Rectangle r = dirtyRegions.get(i);
+            if (r == null) dirty.get(i).repaint();
+            else dirty.get(i).repaint(r.x, r.y, r.width, r.height);
+        }
+        dirty.clear();
+        dirtyRegions.clear();
+
+        if (active.isEmpty()) {
+            timer.stop();
+            lastTickNs = 0;
+        }
+        Metrics.TICK.record(System.nanoTime() - now);
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.tweens = tweens;
+            event.intervalNanos = interval;
+            event.commit();
+        }
+    }
+
+    /**
+     * 在补间里调用：本帧额外重绘 c 中的 region（组件坐标；null 表示整个组件），与其它脏区域合并。
+     * 覆盖范围随时间变化的补间可以用 target = null 启动，每帧自己声明脏区域。
+     */
+    public void markDirty(Component c, Rectangle region) {
+        if (c == null) return;
+        for (int i = 0; i < dirty.size(); i++) {
+            if (dirty.get(i) != c) continue;
+            Rectangle r = dirtyRegions.get(i);
+            if (r != null) {
+                if (region == null) dirtyRegions.set(i, null);
+                else r.add(region);
+            }
+            return;
+        }
+        dirty.add(c);
+        dirtyRegions.add(region == null ? null : new Rectangle(region));
+    }
+}
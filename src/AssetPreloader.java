@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动时并行预加载资源：图片解码（并按格子尺寸预缩放）与音效解码分发到后台线程池，
+ * 与建窗口同时进行，EDT 上不再做任何解码，第一次交换也不会因为加载音效卡一下。
+ *
+ * <pre>
+ * AssetPreloader preloader = new AssetPreloader()
+ *         .image("/MainWindowBack.png")
+ *         .sprite("/Block_001.png", 30, 30)
+ *         .sound(SoundManager.MOVE_SOUND);
+ * preloader.start().thenRun(...);
+ * </pre>
+ * 单个资源加载失败只打印警告（与 SpriteAtlas / SoundManager 一致），不影响整体完成。
+ */
+public class AssetPreloader {
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private CompletableFuture<Void> ready;
+    private long startNs, elapsedNs;
+
+    /** 解码原图 */
+    public AssetPreloader image(String path) {
+        tasks.add(() -> SpriteAtlas.source(path));
+        return this;
+    }
+
+    /** 解码并预缩放到 width x height（同时会得到原图） */
+    public AssetPreloader sprite(String path, int width, int height) {
+        tasks.add(() -> SpriteAtlas.get(path, width, height));
+        return this;
+    }
+
+    /** 解码音效进缓存（长音频只检查存在，播放时流式解码） */
+    public AssetPreloader sound(String path) {
+        tasks.add(() -> {
+            if (!SoundManager.preload(path)) System.err.println("⚠️ 找不到音频资源: " + path);
+        });
+        return this;
+    }
+
+    /** 打开音频输出线 */
+    public AssetPreloader audioDevice() {
+        tasks.add(SoundManager::warmUp);
+        return this;
+    }
+
+    /** 开始加载（重复调用返回同一个 future）；线程数默认取 CPU 核数，加载完自动回收 */
+    public synchronized CompletableFuture<Void> start() {
+        return start(Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors())));
+    }
+
+    public synchronized CompletableFuture<Void> start(int threads) {
+        if (ready != null) return ready;
+        AtomicInteger id = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "AssetPreloader-" + id.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        startNs = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            Runnable task = tasks.get(i);
+            futures[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ 资源预加载失败: " + e);
+                } finally {
+                    done.incrementAndGet();
+                }
+            }, pool);
+        }
+        ready = CompletableFuture.allOf(futures).whenComplete((v, e) -> {
+            elapsedNs = System.nanoTime() - startNs;
+            pool.shutdown();
+        });
+        return ready;
+    }
+
+    /** 就绪 future（未 start 时为 null） */
+    public synchronized CompletableFuture<Void> ready() { return ready; }
+
+    public boolean isDone() {
+        CompletableFuture<Void> f = ready();
+        return f != null && f.isDone();
+    }
+
+    public int total() { return tasks.size(); }
+    public int completed() { return done.get(); }
+
+    /** 全部加载耗时（毫秒；未完成时为 0） */
+    public double elapsedMillis() { return elapsedNs / 1e6; }
+}
@@ -0,0 +1,229 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * 软件混音器：一条常驻的 SourceDataLine + 一个音频线程，把已解码的 PCM 在软件里叠加后输出。
+ * - 固定数量的“声部”（voice），满了就抢占最早开始的那一个；
+ * - 每个声部独立增益；
+ * - play 只写几个数组槽位，不分配对象、不开线程、不开 Line，延迟恒定为一个缓冲块；
+ * - 长音频走单独的流式声部（{@link StreamSource}），每块从解码好的缓冲里取样本，不整段驻留内存；
+ * - 没有音频设备时退回“空输出”：按真实时间推进声部，保证无声环境（headless）下也能正常运行。
+ */
+public class AudioMixer {
+
+    /** 混音格式：44.1kHz / 16-bit / 立体声 / little-endian */
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int CHANNELS = 2;
+    public static final AudioFormat FORMAT =
+            new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, SAMPLE_RATE, 16, CHANNELS, CHANNELS * 2, SAMPLE_RATE, false);
+
+    /** 同时播放的流式声部数，超出时关闭最早的那一路 */
+    public static final int MAX_STREAMS = 2;
+
+    /** 流式声源：由其它线程解码填充，音频线程每个混音块读取一次 */
+    public interface StreamSource {
+        /** 非阻塞地读取最多 len 个交错立体声样本；暂时没有数据返回 0，播放结束返回 -1 */
+        int read(short[] dst, int off, int len);
+
+        /** 停止并释放解码资源 */
+        void close();
+    }
+
+    /** 每次混音的帧数（256 帧 ≈ 5.8ms） */
+    private static final int CHUNK_FRAMES = 256;
+    /** 设备缓冲 = 若干个混音块 */
+    private static final int LINE_CHUNKS = 4;
+
+    // ===== 声部（以数组保存，play 时不分配） =====
+    private final short[][] voiceData;   // 交错立体声样本
+    private final int[] voicePos;        // 当前读到的样本下标
+    private final float[] voiceGain;     // 线性增益
+    private final long[] voiceStart;     // 开始序号（用于抢占最老的声部）
+    private long playSeq = 0;
+
+    // ===== 流式声部 =====
+    private final StreamSource[] streams = new StreamSource[MAX_STREAMS];
+    private final float[] streamGain = new float[MAX_STREAMS];
+    private final long[] streamStart = new long[MAX_STREAMS];
+
+    // ===== 混音缓冲 =====
+    private final int[] accum = new int[CHUNK_FRAMES * CHANNELS];
+    private final byte[] out = new byte[CHUNK_FRAMES * CHANNELS * 2];
+    private final short[] streamBuf = new short[CHUNK_FRAMES * CHANNELS];
+
+    private volatile float masterGain = 1f;
+    private volatile boolean running = false;
+    private volatile SourceDataLine line; // null 表示空输出
+    private Thread thread;
+
+    public AudioMixer(int maxVoices) {
+        if (maxVoices <= 0) throw new IllegalArgumentException("maxVoices must be > 0");
+        voiceData = new short[maxVoices][];
+        voicePos = new int[maxVoices];
+        voiceGain = new float[maxVoices];
+        voiceStart = new long[maxVoices];
+    }
+
+    /** 打开输出设备并启动音频线程；设备不可用时使用空输出 */
+    public synchronized void start() {
+        if (running) return;
+        try {
+            SourceDataLine l = AudioSystem.getSourceDataLine(FORMAT);
+            l.open(FORMAT, out.length * LINE_CHUNKS);
+            l.start();
+            line = l;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("音频设备不可用，使用静音输出: " + e.getMessage());
+            line = null;
+        }
+        running = true;
+        thread = new Thread(this::runLoop, "AudioMixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /** 停止音频线程并关闭设备 */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    /** 是否输出到真实设备（false 表示静音输出） */
+    public boolean hasDevice() { return line != null; }
+
+    /** 主音量（线性，1 为原始） */
+    public void setMasterGain(float linear) { masterGain = Math.max(0f, linear); }
+
+    /**
+     * 播放一段交错立体声样本（须为 {@link #FORMAT}）。
+     *
+     * @param gain 该声部的线性增益
+     * @return 占用的声部下标
+     */
+    public synchronized int play(short[] samples, float gain) {
+        if (!running) start();
+        int slot = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int v = 0; v < voiceData.length; v++) {
+            if (voiceData[v] == null) { slot = v; break; }
+            if (voiceStart[v] < oldest) { oldest = voiceStart[v]; slot = v; }
+        }
+        // 没有空闲声部时 slot 即最早开始的声部（被抢占）
+        voiceData[slot] = samples;
+        voicePos[slot] = 0;
+        voiceGain[slot] = gain;
+        voiceStart[slot] = playSeq++;
+        return slot;
+    }
+
+    /**
+     * 播放一路流式声源；流式声部已满时关闭最早开始的那一路。
+     *
+     * @param gain 线性增益
+     */
+    public synchronized void playStream(StreamSource source, float gain) {
+        if (!running) start();
+        int slot = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int v = 0; v < streams.length; v++) {
+            if (streams[v] == null) { slot = v; break; }
+            if (streamStart[v] < oldest) { oldest = streamStart[v]; slot = v; }
+        }
+        if (streams[slot] != null) streams[slot].close();
+        streams[slot] = source;
+        streamGain[slot] = gain;
+        streamStart[slot] = playSeq++;
+    }
+
+    /** 停止一路流式声源（不在播放时忽略） */
+    public synchronized void stopStream(StreamSource source) {
+        for (int v = 0; v < streams.length; v++) {
+            if (streams[v] == source) {
+                streams[v] = null;
+                source.close();
+            }
+        }
+    }
+
+    /** 正在播放的流式声部数量 */
+    public synchronized int activeStreams() {
+        int n = 0;
+        for (StreamSource s : streams) if (s != null) n++;
+        return n;
+    }
+
+    /** 正在发声的声部数量 */
+    public synchronized int activeVoices() {
+        int n = 0;
+        for (short[] d : voiceData) if (d != null) n++;
+        return n;
+    }
+
+    /* -------------------- 音频线程 -------------------- */
+
+    private void runLoop() {
+        long chunkNanos = (long) (CHUNK_FRAMES * 1_000_000_000L / SAMPLE_RATE);
+        long next = System.nanoTime();
+        SourceDataLine l = line;
+        try {
+            while (running) {
+                mixChunk();
+                if (l != null) {
+                    l.write(out, 0, out.length); // 设备缓冲满时阻塞，自然控制节奏
+                } else {
+                    next += chunkNanos;
+                    long sleep = next - System.nanoTime();
+                    if (sleep > 0) Thread.sleep(sleep / 1_000_000L, (int) (sleep % 1_000_000L));
+                }
+            }
+        } catch (InterruptedException ignore) {
+            // stop() 触发
+        } finally {
+            if (l != null) {
+                try { l.stop(); l.close(); } catch (Exception ignore) {}
+            }
+        }
+    }
+
+    /** 混合一个缓冲块到 out */
+    private void mixChunk() {
+        java.util.Arrays.fill(accum, 0);
+        synchronized (this) {
+            for (int v = 0; v < voiceData.length; v++) {
+                short[] data = voiceData[v];
+                if (data == null) continue;
+                int pos = voicePos[v];
+                int n = Math.min(accum.length, data.length - pos);
+                float g = voiceGain[v];
+                for (int i = 0; i < n; i++) accum[i] += (int) (data[pos + i] * g);
+                pos += n;
+                if (pos >= data.length) voiceData[v] = null; // 播放完毕，释放声部
+                else voicePos[v] = pos;
+            }
+            for (int v = 0; v < streams.length; v++) {
+                StreamSource src = streams[v];
+                if (src == null) continue;
+                int n = src.read(streamBuf, 0, streamBuf.length); // 欠载时只混入已有的部分
+                if (n < 0) {
+                    streams[v] = null;
+                    src.close();
+                    continue;
+                }
+                float g = streamGain[v];
+                for (int i = 0; i < n; i++) accum[i] += (int) (streamBuf[i] * g);
+            }
+        }
+        float mg = masterGain;
+        for (int i = 0, j = 0; i < accum.length; i++, j += 2) {
+            int s = (int) (accum[i] * mg);
+            if (s > Short.MAX_VALUE) s = Short.MAX_VALUE;
+            else if (s < Short.MIN_VALUE) s = Short.MIN_VALUE;
+            out[j] = (byte) s;
+            out[j + 1] = (byte) (s >> 8);
+        }
+    }
+}
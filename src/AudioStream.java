@@ -0,0 +1,224 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 长音频的流式声源：解码线程边读边转换成混音格式（{@link AudioMixer#FORMAT}），
+ * 写进固定数量的可复用缓冲块，音频线程每个混音块从中取样本。
+ * 缓冲块在两个 {@link SpscRing} 之间循环（空闲 -> 解码线程填充 -> 已填充 -> 音频线程读完 -> 空闲），
+ * 播放期间不分配；无论文件多长，一路流只占 BUFFER_COUNT x BUFFER_SAMPLES 个样本。
+ */
+public class AudioStream implements AudioMixer.StreamSource {
+
+    /** 缓冲块数量 */
+    public static final int BUFFER_COUNT = 8;
+    /** 每块样本数（交错立体声，8192 个样本 = 4096 帧 ≈ 93ms） */
+    public static final int BUFFER_SAMPLES = 8192;
+
+    /** 解码线程没有空闲块时的等待间隔（纳秒） */
+    private static final long WAIT_NANOS = 5_000_000L;
+
+    /** 可复用缓冲块 */
+    private static final class Chunk {
+        final short[] samples = new short[BUFFER_SAMPLES];
+        int length;
+    }
+
+    private final String resourcePath;
+    private final URL url;
+    private final boolean loop;
+    private final SpscRing<Chunk> free = new SpscRing<>(BUFFER_COUNT);
+    private final SpscRing<Chunk> full = new SpscRing<>(BUFFER_COUNT);
+    private final Thread decoder;
+    private volatile boolean eof = false;     // 解码线程已写完最后一块
+    private volatile boolean closed = false;
+
+    // 音频线程
+    private Chunk current;
+    private int pos;
+
+    // 解码线程：线性插值重采样的跨块状态
+    private Chunk filling;
+    private int prevL, prevR;
+    private double frac;
+    private boolean primed;
+
+    private AudioStream(String resourcePath, URL url, boolean loop) {
+        this.resourcePath = resourcePath;
+        this.url = url;
+        this.loop = loop;
+        for (int i = 0; i < BUFFER_COUNT; i++) free.offer(new Chunk());
+        this.decoder = new Thread(this::decodeLoop, "AudioStream-" + resourcePath);
+        this.decoder.setDaemon(true);
+    }
+
+    /**
+     * 打开并开始解码（播放由 {@link AudioMixer#playStream} 开始）。
+     *
+     * @param loop 是否循环播放
+     * @return 找不到资源时返回 null
+     */
+    public static AudioStream open(String resourcePath, boolean loop) {
+        URL url = AudioStream.class.getResource(resourcePath);
+        if (url == null) return null;
+        AudioStream s = new AudioStream(resourcePath, url, loop);
+        s.decoder.start();
+        return s;
+    }
+
+    public String resourcePath() { return resourcePath; }
+
+    /** 所有缓冲块占用的字节数（与文件长度无关） */
+    public static long bufferBytes() {
+        return (long) BUFFER_COUNT * BUFFER_SAMPLES * 2;
+    }
+
+    /* -------------------- 音频线程 -------------------- */
+
+    @Override
+    public int read(short[] dst, int off, int len) {
+        int n = 0;
+        while (n < len) {
+            if (current == null) {
+                current = full.poll();
+                pos = 0;
+                if (current == null) {
+                    if (n == 0 && eof && full.isEmpty()) return -1;
+                    break; // 欠载：这一块剩下的部分为静音
+                }
+            }
+            int k = Math.min(len - n, current.length - pos);
+            System.arraycopy(current.samples, pos, dst, off + n, k);
+            n += k;
+            pos += k;
+            if (pos >= current.length) {
+                free.offer(current);
+                current = null;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(decoder);
+    }
+
+    /* -------------------- 解码线程 -------------------- */
+
+    private void decodeLoop() {
+        try {
+            do {
+                primed = false;
+                frac = 0;
+                if (!decodeOnce()) break;
+            } while (loop && !closed);
+            if (filling != null && filling.length > 0) publish(filling);
+            filling = null;
+        } finally {
+            eof = true;
+        }
+    }
+
+    /** 把整个文件解码一遍；失败返回 false */
+    private boolean decodeOnce() {
+        AudioInputStream in = null, pcm = null;
+        try {
+            in = AudioSystem.getAudioInputStream(url);
+            AudioFormat base = in.getFormat();
+            AudioFormat target = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, base.getSampleRate(), 16,
+                    base.getChannels(), base.getChannels() * 2, base.getSampleRate(), false);
+            pcm = AudioSystem.isConversionSupported(target, base) ? AudioSystem.getAudioInputStream(target, in) : in;
+            AudioFormat f = pcm.getFormat();
+            if (f.getSampleSizeInBits() != 16 || f.isBigEndian()) {
+                System.err.println("⚠️ 不支持的音频格式: " + resourcePath + " -> " + f);
+                return false;
+            }
+            int ch = Math.max(1, f.getChannels());
+            double ratio = f.getSampleRate() / AudioMixer.SAMPLE_RATE;
+            int frameBytes = 2 * ch;
+            byte[] buf = new byte[frameBytes * 1024];
+            int have = 0, r;
+            while (!closed && (r = pcm.read(buf, have, buf.length - have)) != -1) {
+                have += r;
+                int frames = have / frameBytes;
+                for (int i = 0; i < frames && !closed; i++) {
+                    int o = i * frameBytes;
+                    int l = sampleAt(buf, o);
+                    int rr = ch > 1 ? sampleAt(buf, o + 2) : l;
+                    pushFrame(l, rr, ratio);
+                }
+                int rest = have - frames * frameBytes;
+                System.arraycopy(buf, frames * frameBytes, buf, 0, rest);
+                have = rest;
+            }
+            return !closed;
+        } catch (UnsupportedAudioFileException | IOException e) {
+            System.err.println("加载音频失败: " + resourcePath + " -> " + e.getMessage());
+            return false;
+        } finally {
+            closeQuietly(pcm);
+            closeQuietly(in);
+        }
+    }
+
+    /** 输入一帧源样本，按比例输出 0 个或多个混音帧（在上一帧与这一帧之间线性插值） */
+    private void pushFrame(int l, int r, double ratio) {
+        if (!primed) {
+            prevL = l;
+            prevR = r;
+            primed = true;
+            return;
+        }
+        while (frac < 1.0 && !closed) {
+            emit((short) Math.round(prevL + (l - prevL) * frac), (short) Math.round(prevR + (r - prevR) * frac));
+            frac += ratio;
+        }
+        frac -= 1.0;
+        prevL = l;
+        prevR = r;
+    }
+
+    private void emit(short l, short r) {
+        if (filling == null) {
+            filling = takeFree();
+            if (filling == null) return;
+            filling.length = 0;
+        }
+        filling.samples[filling.length++] = l;
+        filling.samples[filling.length++] = r;
+        if (filling.length == BUFFER_SAMPLES) {
+            publish(filling);
+            filling = null;
+        }
+    }
+
+    /** 取一块空闲缓冲；全部在用时等音频线程读完（关闭时返回 null） */
+    private Chunk takeFree() {
+        Chunk c;
+        while ((c = free.poll()) == null) {
+            if (closed) return null;
+            LockSupport.parkNanos(this, WAIT_NANOS);
+        }
+        return c;
+    }
+
+    private void publish(Chunk c) {
+        // 空闲块与已填充块总数固定为 BUFFER_COUNT，这里不会满
+        full.offer(c);
+    }
+
+    private static int sampleAt(byte[] data, int offset) {
+        return (short) ((data[offset] & 0xff) | (data[offset + 1] << 8));
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        if (c == null) return;
+        try { c.close(); } catch (Exception ignore) {}
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * 位棋盘：每种类型一个 64 位掩码，第 i 位对应格子索引 i（row * cols + col）。
+ * 只适用于格子数 <= 64 的棋盘（例如 8x8），放不下时由调用方退回数组实现。
+ *
+ * 判定规则与 {@link Match3Manager} 相同（同类型 4 邻接连通块 >= 3 即消除），但全部用移位、与、popcount 完成：
+ * 大小 >= 3 的连通块必含一个“有 >= 2 个同类邻居”的格子，以这些格子为种子在该类型掩码内做洪泛，
+ * 得到的就是该类型全部要消除的格子，不需要逐个连通块 BFS。
+ */
+public final class BitBoard {
+    private final int rows, cols, n;
+    private final long full;        // 有效格子
+    private final long notFirstCol; // 去掉第 0 列
+    private final long notLastCol;  // 去掉最后一列
+
+    private final long[] masks = new long[Board.MAX_TYPES];
+    private final byte[] cells;     // 与掩码同步的类型表（交换时需要知道类型）
+    private final byte[] types = new byte[Board.MAX_TYPES]; // 出现过的类型
+    private int typeCount;
+
+    /** 棋盘能否放进一个 long */
+    public static boolean fits(Board board) {
+        return board.size() <= 64;
+    }
+
+    public BitBoard(int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || rows * cols > 64) {
+            throw new IllegalArgumentException("Board does not fit in 64 bits: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.n = rows * cols;
+        this.full = (n == 64) ? -1L : (1L << n) - 1;
+        long first = 0, last = 0;
+        for (int r = 0; r < rows; r++) {
+            first |= 1L << (r * cols);
+            last |= 1L << (r * cols + cols - 1);
+        }
+        this.notFirstCol = full & ~first;
+        this.notLastCol = full & ~last;
+        this.cells = new byte[n];
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+
+    /** 从数组棋盘载入 */
+    public void load(Board board) {
+        if (board.rows() != rows || board.cols() != cols) {
+            throw new IllegalArgumentException("Board size mismatch.");
+        }
+        for (int k = 0; k < typeCount; k++) masks[types[k]] = 0L;
+        typeCount = 0;
+        for (int i = 0; i < n; i++) {
+            byte t = board.get(i);
+            cells[i] = t;
+            if (t == Board.EMPTY) continue;
+            if (masks[t] == 0L) types[typeCount++] = t;
+            masks[t] |= 1L << i;
+        }
+    }
+
+    /** 某类型的掩码 */
+    public long mask(byte type) { return masks[type]; }
+
+    /* -------------------- 判定 -------------------- */
+
+    /** 全部要消除的格子 */
+    public long matchMask() {
+        long result = 0L;
+        for (int k = 0; k < typeCount; k++) result |= matchMask(masks[types[k]]);
+        return result;
+    }
+
+    /** 单一类型掩码 m 中要消除的格子 */
+    public long matchMask(long m) {
+        if (Long.bitCount(m) < Match3Manager.MIN_MATCH) return 0L;
+        // 各方向“有同类邻居”
+        long left = m & (m << 1) & notFirstCol;
+        long right = m & (m >>> 1) & notLastCol;
+        long up = m & below(m);
+        long down = m & above(m);
+        // 至少两个方向有同类邻居的格子作为种子
+        long seeds = (left & (right | up | down)) | (right & (up | down)) | (up & down);
+        return seeds == 0L ? 0L : flood(seeds, m);
+    }
+
+    /** 在 m 内从 seeds 向 4 邻接扩展直到稳定 */
+    public long flood(long seeds, long m) {
+        long comp = seeds & m;
+        while (true) {
+            long next = (comp | neighbors(comp)) & m;
+            if (next == comp) return comp;
+            comp = next;
+        }
+    }
+
+    /** 掩码中所有格子的 4 邻接邻居 */
+    public long neighbors(long m) {
+        return (((m << 1) & notFirstCol) | ((m >>> 1) & notLastCol) | below(m) | above(m)) & full;
+    }
+
+    /** 每格移到下一行；Java 的 long 移位按 64 取模，1x64 棋盘（cols == 64）没有上下邻居，需单独处理 */
+    private long below(long m) { return cols < 64 ? m << cols : 0L; }
+
+    /** 每格移到上一行 */
+    private long above(long m) { return cols < 64 ? m >>> cols : 0L; }
+
+    /* -------------------- 交换 -------------------- */
+
+    /** 交换两格（同步更新掩码） */
+    public void swap(int a, int b) {
+        byte ta = cells[a], tb = cells[b];
+        if (ta == tb) return;
+        long ba = 1L << a, bb = 1L << b;
+        if (ta != Board.EMPTY) masks[ta] ^= ba | bb;
+        if (tb != Board.EMPTY) masks[tb] ^= ba | bb;
+        cells[a] = tb;
+        cells[b] = ta;
+    }
+
+    /**
+     * 试换两格，返回会被消除的方块数（棋盘恢复原状）。
+     * 前提：交换前棋盘稳定，因此只有这两格的类型可能产生新的消除。
+     */
+    public int evaluateSwap(int a, int b) {
+        byte ta = cells[a], tb = cells[b];
+        if (ta == tb || ta == Board.EMPTY || tb == Board.EMPTY) return 0;
+        // 快速排除：换过去之后两边都没有同类邻居，不可能成块
+        long ba = 1L << a, bb = 1L << b;
+        if ((neighbors(bb) & masks[ta] & ~ba) == 0L && (neighbors(ba) & masks[tb] & ~bb) == 0L) return 0;
+        swap(a, b);
+        int size = Long.bitCount(matchMask(masks[ta]) | matchMask(masks[tb]));
+        swap(a, b);
+        return size;
+    }
+
+    /** 把掩码写入 MatchSet（按格子索引升序） */
+    public static int toMatchSet(long mask, MatchSet out) {
+        out.clear();
+        while (mask != 0L) {
+            out.add(Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 与 Swing 无关的棋盘模型。
+ * 用一维 byte[] 按 row * cols + col 存放每格的“类型 id”，空格为 {@link #EMPTY}。
+ * 类型 id 由 {@link #typeId(String)} 从资源路径驻留（intern）得到，判定时只比较 byte，不再比较 String。
+ */
+public class Board {
+
+    /** 空格（已被消除、尚未补充） */
+    public static final byte EMPTY = -1;
+
+    /** 最多支持的类型数量（byte 非负部分） */
+    public static final int MAX_TYPES = 127;
+
+    // ===== 类型驻留表（全局共享） =====
+    private static final Map<String, Byte> TYPE_IDS = new HashMap<>();
+    private static final List<String> TYPE_KEYS = new ArrayList<>();
+
+    /** 将类型标识（例如图片路径）驻留为紧凑的 byte id；同一 key 总是得到同一 id。 */
+    public static synchronized byte typeId(String key) {
+        Byte id = TYPE_IDS.get(key);
+        if (id != null) return id;
+        if (TYPE_KEYS.size() >= MAX_TYPES) {
+            throw new IllegalStateException("Too many tile types: " + key);
+        }
+        byte next = (byte) TYPE_KEYS.size();
+        TYPE_IDS.put(key, next);
+        TYPE_KEYS.add(key);
+        return next;
+    }
+
+    /** 由 id 反查类型标识；EMPTY 或未知 id 返回 null */
+    public static synchronized String typeKey(byte id) {
+        return (id >= 0 && id < TYPE_KEYS.size()) ? TYPE_KEYS.get(id) : null;
+    }
+
+    // ===== 棋盘数据 =====
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+
+    /** 创建 rows x cols 的空棋盘（全部为 EMPTY） */
+    public Board(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Board size invalid.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+        java.util.Arrays.fill(cells, EMPTY);
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int size() { return cells.length; }
+
+    /* -------------------- 坐标换算 -------------------- */
+
+    public int index(int row, int col) { return row * cols + col; }
+    public int rowOf(int index) { return index / cols; }
+    public int colOf(int index) { return index % cols; }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /** 是否上下左右相邻（曼哈顿距离 1） */
+    public boolean areNeighbors(int a, int b) {
+        int dr = Math.abs(rowOf(a) - rowOf(b));
+        int dc = Math.abs(colOf(a) - colOf(b));
+        return (dr + dc) == 1;
+    }
+
+    /* -------------------- 读写 -------------------- */
+
+    public byte get(int index) { return cells[index]; }
+    public byte get(int row, int col) { return cells[row * cols + col]; }
+
+    public void set(int index, byte type) { cells[index] = type; }
+    public void set(int row, int col, byte type) { cells[row * cols + col] = type; }
+
+    public boolean isEmpty(int index) { return cells[index] == EMPTY; }
+
+    /** 交换两格内容（不做相邻校验，调用方负责） */
+    public void swap(int a, int b) {
+        byte t = cells[a];
+        cells[a] = cells[b];
+        cells[b] = t;
+    }
+
+    /** 深拷贝 */
+    public Board copy() {
+        Board b = new Board(rows, cols);
+        System.arraycopy(cells, 0, b.cells, 0, cells.length);
+        return b;
+    }
+
+    /** 从同尺寸棋盘复制内容（不分配） */
+    public void copyFrom(Board other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("Board size mismatch.");
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    /** 从紧凑数组载入（长度须等于格子数） */
+    public void copyFrom(byte[] src) {
+        if (src.length != cells.length) throw new IllegalArgumentException("Board size mismatch.");
+        System.arraycopy(src, 0, cells, 0, cells.length);
+    }
+
+    /** 导出到紧凑数组（长度须等于格子数） */
+    public void copyTo(byte[] dst) {
+        if (dst.length != cells.length) throw new IllegalArgumentException("Board size mismatch.");
+        System.arraycopy(cells, 0, dst, 0, cells.length);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * 逻辑线程发给 EDT 的棋盘变化事件（见 {@link GameLogic}），EDT 按顺序播放。
+ * 一次交换依次产生 SWAP、若干 STEP（消除 + 下落 + 补充）、可选的 SHUFFLE，最后是 END。
+ */
+public final class BoardEvent {
+    /** 交换 a、b 两格 */
+    public static final int SWAP = 0;
+    /** 一步连消：step 中的消除、下落与补充 */
+    public static final int STEP = 1;
+    /** 死局重排：perm */
+    public static final int SHUFFLE = 2;
+    /** 一次交换的事件到此结束 */
+    public static final int END = 3;
+    /** 交换被拒绝（不能消除且开启了拒绝） */
+    public static final int REJECT = 4;
+    /** 提示：a、b 为当前最佳交换 */
+    public static final int HINT = 5;
+    /** 撤销 / 重做：cells 中的格子直接改为 types（不播放动画）；没有可撤销 / 重做时为 REJECT */
+    public static final int RESTORE = 6;
+
+    public final int kind;
+    public final int a, b;
+    public final CascadeStep step;
+    public final int[] perm;
+    public final int[] cells;
+    public final byte[] types;
+
+    private BoardEvent(int kind, int a, int b, CascadeStep step, int[] perm) {
+        this(kind, a, b, step, perm, null, null);
+    }
+
+    private BoardEvent(int kind, int a, int b, CascadeStep step, int[] perm, int[] cells, byte[] types) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.step = step;
+        this.perm = perm;
+        this.cells = cells;
+        this.types = types;
+    }
+
+    static BoardEvent swap(int a, int b) { return new BoardEvent(SWAP, a, b, null, null); }
+    static BoardEvent step(CascadeStep step) { return new BoardEvent(STEP, -1, -1, step, null); }
+    static BoardEvent shuffle(int[] perm) { return new BoardEvent(SHUFFLE, -1, -1, null, perm); }
+    static BoardEvent end() { return new BoardEvent(END, -1, -1, null, null); }
+    static BoardEvent reject(int a, int b) { return new BoardEvent(REJECT, a, b, null, null); }
+    static BoardEvent hint(int a, int b) { return new BoardEvent(HINT, a, b, null, null); }
+    static BoardEvent restore(int[] cells, byte[] types) { return new BoardEvent(RESTORE, -1, -1, null, null, cells, types); }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 初始棋盘生成：给定种子、任意大小与类型数，一遍生成，保证
+ * 1) 没有现成的 3 连通块（{@link Match3Manager} 的规则）；2) 至少有一步可消除的交换。
+ *
+ * 与 {@link BoardShuffler} 相同，按行优先逐格放置，用“左 / 上邻居所在连通块大小”排除会凑成 3 连通的类型；
+ * 每格最多排除两种类型，所以至少 3 种类型时总有可选的，不需要整盘重来，时间 O(格子数)。
+ * 可走的一步是预先在第一行（窄棋盘为第一列）随机位置埋下的 A A B / _ _ A 图案：
+ * 交换 B 与它下面的 A 即凑成一行 A A A。与图案相邻、会把图案连成 3 个的自由格额外排除图案的类型。
+ * 类型按调色板自身的顺序编号（不按 {@link Board#typeId} 的数值排序），所以结果只由种子和调色板决定，
+ * 与本进程里类型 id 的登记顺序无关，回放文件里记下的种子 + 调色板就能复现同一个棋盘。
+ */
+public class BoardGenerator {
+
+    private final Board board;
+    private final byte[] group;     // 已放置格子所在连通块大小（1 或 2）
+    private final byte[] fixed;     // 预先埋下的图案；EMPTY 表示自由格
+    private final byte[] excluded = new byte[4];
+    private final int[] excludedPos = new int[4];
+
+    public BoardGenerator(Board board) {
+        this.board = board;
+        this.group = new byte[board.size()];
+        this.fixed = new byte[board.size()];
+    }
+
+    /**
+     * 覆盖整个棋盘。类型在 palette 的不同值中均匀选取（重复值不加权），按首次出现的顺序编号。
+     *
+     * @param palette 至少 3 种不同的类型 id
+     */
+    public void fill(byte[] palette, Random rng) {
+        byte[] types = distinct(palette);
+        if (types.length < Match3Manager.MIN_MATCH) {
+            throw new IllegalArgumentException("At least " + Match3Manager.MIN_MATCH + " distinct tile types required.");
+        }
+        int rows = board.rows(), cols = board.cols(), n = board.size();
+        Arrays.fill(fixed, Board.EMPTY);
+        plantMove(types, rng, rows, cols);
+
+        for (int cell = 0; cell < n; cell++) {
+            int left = (cell % cols > 0) ? cell - 1 : -1;
+            int up = (cell >= cols) ? cell - cols : -1;
+            byte tl = left >= 0 ? board.get(left) : Board.EMPTY;
+            byte tu = up >= 0 ? board.get(up) : Board.EMPTY;
+
+            byte chosen = fixed[cell];
+            if (chosen == Board.EMPTY) {
+                int ex = 0;
+                if (tl != Board.EMPTY && groupIfPlaced(tl, left, tl, up, tu) >= Match3Manager.MIN_MATCH) ex = add(ex, tl);
+                if (tu != Board.EMPTY && groupIfPlaced(tu, left, tl, up, tu) >= Match3Manager.MIN_MATCH) ex = add(ex, tu);
+                // 不与右边 / 下边的图案格同类型，图案放下时才不会连成 3 个
+                if (cell % cols + 1 < cols && fixed[cell + 1] != Board.EMPTY) ex = add(ex, fixed[cell + 1]);
+                if (cell + cols < n && fixed[cell + cols] != Board.EMPTY) ex = add(ex, fixed[cell + cols]);
+                // 竖向图案：左边的图案格下面还有同类型图案格时，不与它连上
+                if (left >= 0 && fixed[left] != Board.EMPTY && left + cols < n && fixed[left + cols] == fixed[left]) {
+                    ex = add(ex, fixed[left]);
+                }
+                chosen = pick(types, ex, rng);
+            }
+
+            board.set(cell, chosen);
+            int size = groupIfPlaced(chosen, left, tl, up, tu);
+            group[cell] = (byte) size;
+            if (size == 2) {
+                if (tl == chosen) group[left] = 2;
+                else group[up] = 2;
+            }
+        }
+    }
+
+    /**
+     * 埋下一步可走的交换：宽度 >= 3 时放在第一行，否则放在第一列（转置的同一图案）；
+     * 棋盘小到放不下时不埋（这种棋盘本来就可能无步可走）。
+     */
+    private void plantMove(byte[] types, Random rng, int rows, int cols) {
+        int ia = rng.nextInt(types.length);
+        byte a = types[ia];
+        byte b = types[(ia + 1 + rng.nextInt(types.length - 1)) % types.length];
+        if (cols >= 3 && rows >= 2) {
+            int c = rng.nextInt(cols - 2);
+            fixed[c] = a;
+            fixed[c + 1] = a;
+            fixed[c + 2] = b;
+            fixed[cols + c + 2] = a;
+        } else if (rows >= 3 && cols >= 2) {
+            int r = rng.nextInt(rows - 2);
+            fixed[r * cols] = a;
+            fixed[(r + 1) * cols] = a;
+            fixed[(r + 2) * cols] = b;
+            fixed[(r + 2) * cols + 1] = a;
+        }
+    }
+
+    /** 把 t 加进排除表（去重），返回新的数量 */
+    private int add(int ex, byte t) {
+        for (int i = 0; i < ex; i++) if (excluded[i] == t) return ex;
+        excluded[ex] = t;
+        return ex + 1;
+    }
+
+    /** 在 types 中去掉排除表后均匀选一个：先取名次，再按排除项的位置顺延，O(排除数 x 类型数) */
+    private byte pick(byte[] types, int ex, Random rng) {
+        int[] pos = excludedPos;
+        int m = 0;
+        for (int i = 0; i < ex; i++) {
+            int p = indexOf(types, excluded[i]);
+            if (p >= 0) pos[m++] = p;
+        }
+        if (m >= types.length) throw new IllegalStateException("No tile type fits.");
+        Arrays.sort(pos, 0, m);
+        int r = rng.nextInt(types.length - m);
+        for (int i = 0; i < m; i++) if (r >= pos[i]) r++;
+        return types[r];
+    }
+
+    /** 在当前格放 type 后其所在连通块的大小（左、上两块一定互不相连） */
+    private int groupIfPlaced(byte type, int left, byte tl, int up, byte tu) {
+        int size = 1;
+        if (left >= 0 && tl == type) size += group[left];
+        if (up >= 0 && tu == type) size += group[up];
+        return size;
+    }
+
+    private static int indexOf(byte[] types, byte t) {
+        for (int i = 0; i < types.length; i++) if (types[i] == t) return i;
+        return -1;
+    }
+
+    /** 去重，保留调色板中首次出现的顺序 */
+    private static byte[] distinct(byte[] palette) {
+        boolean[] seen = new boolean[Board.MAX_TYPES];
+        byte[] out = new byte[palette.length];
+        int m = 0;
+        for (byte t : palette) {
+            if (t == Board.EMPTY) throw new IllegalArgumentException("Palette contains EMPTY.");
+            if (!seen[t]) {
+                seen[t] = true;
+                out[m++] = t;
+            }
+        }
+        return Arrays.copyOf(out, m);
+    }
+}
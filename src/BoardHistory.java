@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 棋盘历史：每一步保存一个不可变快照，快照之间结构共享，支持无限撤销 / 重做。
+ *
+ * 快照是一棵 32 叉的持久化树，叶子是 16 格的 byte[] 块。记录一步时只复制这一步改动过的块
+ * 以及它们到根的路径，其余子树与上一快照共用，所以每步的内存与改动的格子数成正比，而不是整个棋盘。
+ * 恢复到任意一步时同时遍历当前快照和目标快照，引用相同的子树直接跳过，只把不同的块写回棋盘，
+ * 代价与两步之间实际不同的格子数成正比。
+ *
+ * 用法：改动棋盘时用 {@link #touch} 标记改动的格子，改完调用 {@link #commit}。
+ * 棋盘只能经由本类（{@link #commit} / {@link #restore}）与快照保持一致，不能有未标记的改动。
+ */
+public class BoardHistory {
+
+    /** 叶子块大小：16 格 */
+    private static final int LEAF_BITS = 4;
+    private static final int LEAF = 1 << LEAF_BITS;
+    /** 内部结点分叉数：32 */
+    private static final int NODE_BITS = 5;
+    private static final int FANOUT = 1 << NODE_BITS;
+
+    /** 内部结点；edit 相同的结点属于同一次 commit，可以就地修改 */
+    private static final class Node {
+        final Object[] kids;
+        final long edit;
+
+        Node(Object[] kids, long edit) {
+            this.kids = kids;
+            this.edit = edit;
+        }
+    }
+
+    private final Board board;
+    private final int chunks;       // 叶子块数
+    private final int levels;       // 内部结点层数（根在第 levels 层）
+    private final ArrayList<Object> states = new ArrayList<>(); // 每步的根（Node 或叶子 byte[]）
+    private int index;              // 当前所在的快照
+    private long edit = 0;
+
+    // ===== 未提交的改动 =====
+    private final int[] dirty;      // 改动过的块号
+    private final long[] dirtyMark; // 块 -> 最近一次被标记时的 edit
+    private int dirtyCount;
+    private boolean dirtyAll;
+
+    /** 以棋盘当前内容作为第 0 步（O(格子数)，只做一次） */
+    public BoardHistory(Board board) {
+        this.board = board;
+        this.chunks = (board.size() + LEAF - 1) >>> LEAF_BITS;
+        int lv = 0;
+        for (long span = 1; span < chunks; span <<= NODE_BITS) lv++;
+        this.levels = lv;
+        this.dirty = new int[chunks];
+        this.dirtyMark = new long[chunks];
+        Arrays.fill(dirtyMark, -1L);
+        states.add(build(levels, 0));
+        edit++;     // 第 0 步的结点不再可变
+    }
+
+    /** 快照总数（包括第 0 步） */
+    public int size() { return states.size(); }
+
+    /** 当前所在的快照下标 */
+    public int index() { return index; }
+
+    public boolean canUndo() { return index > 0; }
+
+    public boolean canRedo() { return index + 1 < states.size(); }
+
+    /** 标记一格已改动（重复标记无妨） */
+    public void touch(int cell) {
+        int c = cell >>> LEAF_BITS;
+        if (dirtyMark[c] == edit) return;
+        dirtyMark[c] = edit;
+        dirty[dirtyCount++] = c;
+    }
+
+    /** 标记整个棋盘已改动（例如重排） */
+    public void touchAll() { dirtyAll = true; }
+
+    /**
+     * 把已标记的改动记成新的一步，丢弃当前位置之后的重做记录。
+     * 代价与改动的块数成正比。
+     */
+    public void commit() {
+        Object root;
+        if (dirtyAll) {
+            root = build(levels, 0);
+        } else {
+            root = states.get(index);
+            for (int k = 0; k < dirtyCount; k++) root = setLeaf(root, levels, dirty[k], leafFromBoard(dirty[k]));
+        }
+        while (states.size() > index + 1) states.remove(states.size() - 1);
+        states.add(root);
+        index++;
+        dirtyCount = 0;
+        dirtyAll = false;
+        edit++;
+    }
+
+    /**
+     * 把棋盘恢复到第 target 步。
+     *
+     * @param changed 非 null 时写入实际改写过的格子（长度须 >= 格子数）
+     * @return 改写过的格子数
+     */
+    public int restore(int target, int[] changed) {
+        if (target < 0 || target >= states.size()) throw new IllegalArgumentException("target out of range: " + target);
+        if (dirtyCount > 0 || dirtyAll) throw new IllegalStateException("Uncommitted changes.");
+        int n = restore(states.get(index), states.get(target), levels, 0, changed, 0);
+        index = target;
+        return n;
+    }
+
+    /* -------------------- 树 -------------------- */
+
+    /** 由棋盘内容建一棵子树（覆盖从 first 块开始的 FANOUT^level 块） */
+    private Object build(int level, int first) {
+        if (level == 0) return leafFromBoard(first);
+        int span = 1 << (NODE_BITS * (level - 1));
+        int width = Math.min(FANOUT, (chunks - first + span - 1) / span);
+        Object[] kids = new Object[width];
+        for (int i = 0; i < width; i++) kids[i] = build(level - 1, first + i * span);
+        return new Node(kids, edit);
+    }
+
+    /** 路径复制：返回把第 chunk 块换成 leaf 之后的子树；本次 commit 新建的结点就地修改 */
+    private Object setLeaf(Object node, int level, int chunk, byte[] leaf) {
+        if (level == 0) return leaf;
+        Node n = (Node) node;
+        int shift = NODE_BITS * (level - 1);
+        int i = (chunk >>> shift) & (FANOUT - 1);
+        Node out = n.edit == edit ? n : new Node(n.kids.clone(), edit);
+        out.kids[i] = setLeaf(n.kids[i], level - 1, chunk, leaf);
+        return out;
+    }
+
+    private byte[] leafFromBoard(int chunk) {
+        int from = chunk << LEAF_BITS;
+        int len = Math.min(LEAF, board.size() - from);
+        byte[] leaf = new byte[len];
+        for (int i = 0; i < len; i++) leaf[i] = board.get(from + i);
+        return leaf;
+    }
+
+    /** 同时遍历两棵树，只写回不同的块 */
+    private int restore(Object from, Object to, int level, int first, int[] changed, int count) {
+        if (from == to) return count;
+        if (level == 0) {
+            byte[] a = (byte[]) from, b = (byte[]) to;
+            int base = first << LEAF_BITS;
+            for (int i = 0; i < b.length; i++) {
+                if (a[i] == b[i]) continue;
+                board.set(base + i, b[i]);
+                if (changed != null) changed[count] = base + i;
+                count++;
+            }
+            return count;
+        }
+        Object[] fa = ((Node) from).kids, ta = ((Node) to).kids;
+        int span = 1 << (NODE_BITS * (level - 1));
+        for (int i = 0; i < ta.length; i++) {
+            count = restore(fa[i], ta[i], level - 1, first + i * span, changed, count);
+        }
+        return count;
+    }
+}
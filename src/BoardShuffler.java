@@ -0,0 +1,157 @@
+import java.util.Random;
+
+/**
+ * 死局重排：只打乱棋盘上已有的方块（类型数量不变），保证重排后
+ * 1) 没有现成可消除的块；2) 至少有一步可消除的交换。
+ *
+ * 做法是逐格构造：按行优先放置，每格从剩余方块中按数量（平方）加权随机选一种类型，
+ * 并用“左 / 上邻居所在连通块大小”排除会凑成 3 连通的类型（已放置部分的连通块始终 <= 2）。
+ * 每次尝试 O(格子数 x 类型数)，最多尝试 {@link #MAX_ATTEMPTS} 次，大棋盘上也有确定的时间上界。
+ * 加权选取时按调色板顺序遍历类型（调色板外的类型排在后面），结果只由随机数和调色板决定，与类型 id 的数值无关。
+ */
+public class BoardShuffler {
+
+    /** 最多尝试次数 */
+    public static final int MAX_ATTEMPTS = 32;
+
+    private final Board board;
+    private final MoveGenerator moves;
+    private final byte[] original;   // 重排前的类型
+    private final byte[] group;      // 已放置格子所在连通块大小（1 或 2）
+    private final int[] counts = new int[Board.MAX_TYPES];
+    private final int[] remaining = new int[Board.MAX_TYPES];
+    private final int[] byType;      // 按类型分桶的原格子索引
+    private final int[] bucketStart = new int[Board.MAX_TYPES + 1];
+    private final int[] bucketNext = new int[Board.MAX_TYPES];
+    private final byte[] palette;    // 遍历类型的顺序
+    private final byte[] order = new byte[Board.MAX_TYPES]; // 本次重排要遍历的类型：调色板顺序 + 调色板外的类型
+    private int orderCount;
+
+    /**
+     * @param palette 类型的遍历顺序（通常就是 CascadeEngine 的调色板，可含重复）
+     */
+    public BoardShuffler(Board board, MoveGenerator moves, byte[] palette) {
+        if (moves.getBoard() != board) throw new IllegalArgumentException("MoveGenerator is bound to another board.");
+        this.board = board;
+        this.moves = moves;
+        this.palette = palette.clone();
+        this.original = new byte[board.size()];
+        this.group = new byte[board.size()];
+        this.byType = new int[board.size()];
+    }
+
+    /** 死局：棋盘上没有任何可消除的交换 */
+    public boolean isDeadlocked() {
+        return !moves.hasAnyMove();
+    }
+
+    /**
+     * 重排棋盘。
+     *
+     * @return 置换表 perm：新棋盘第 i 格的方块来自原棋盘第 perm[i] 格（空格保持原位）；
+     *         在尝试次数内无法满足条件时恢复原棋盘并返回 null
+     */
+    public int[] reshuffle(Random rng) {
+        int n = board.size();
+        for (int i = 0; i < n; i++) original[i] = board.get(i);
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (place(rng) && moves.hasAnyMove()) return permutation();
+        }
+        for (int i = 0; i < n; i++) board.set(i, original[i]);
+        return null;
+    }
+
+    /** 一次构造尝试；失败（某格无类型可放）返回 false */
+    private boolean place(Random rng) {
+        int n = board.size(), cols = board.cols();
+        java.util.Arrays.fill(remaining, 0);
+        for (int i = 0; i < n; i++) {
+            if (original[i] != Board.EMPTY) remaining[original[i]]++;
+        }
+        buildOrder();
+
+        for (int cell = 0; cell < n; cell++) {
+            if (original[cell] == Board.EMPTY) {
+                board.set(cell, Board.EMPTY);
+                continue;
+            }
+            int left = (cell % cols > 0) ? cell - 1 : -1;
+            int up = (cell >= cols) ? cell - cols : -1;
+            byte tl = left >= 0 ? board.get(left) : Board.EMPTY;
+            byte tu = up >= 0 ? board.get(up) : Board.EMPTY;
+
+            // 按剩余数量的平方加权随机选一个不会凑成 3 连通的类型（多的先用掉，避免最后只剩放不下的类型）
+            long total = 0;
+            for (int k = 0; k < orderCount; k++) {
+                byte t = order[k];
+                if (remaining[t] > 0 && groupIfPlaced(t, left, tl, up, tu) < Match3Manager.MIN_MATCH) {
+                    total += (long) remaining[t] * remaining[t];
+                }
+            }
+            if (total == 0) return false;
+            long pick = rng.nextLong(total);
+            byte chosen = Board.EMPTY;
+            for (int k = 0; k < orderCount; k++) {
+                byte t = order[k];
+                if (remaining[t] > 0 && groupIfPlaced(t, left, tl, up, tu) < Match3Manager.MIN_MATCH) {
+                    pick -= (long) remaining[t] * remaining[t];
+                    if (pick < 0) { chosen = t; break; }
+                }
+            }
+
+            remaining[chosen]--;
+            board.set(cell, chosen);
+            int size = groupIfPlaced(chosen, left, tl, up, tu);
+            group[cell] = (byte) size;
+            if (size == 2) {
+                if (tl == chosen) group[left] = 2;
+                else group[up] = 2;
+            }
+        }
+        return true;
+    }
+
+    /** 棋盘上现有的类型：先按调色板顺序，再补上调色板外的（按 id） */
+    private void buildOrder() {
+        orderCount = 0;
+        for (byte t : palette) {
+            if (t != Board.EMPTY && remaining[t] > 0 && !inOrder(t)) order[orderCount++] = t;
+        }
+        for (int t = 0; t < Board.MAX_TYPES; t++) {
+            if (remaining[t] > 0 && !inOrder((byte) t)) order[orderCount++] = (byte) t;
+        }
+    }
+
+    private boolean inOrder(byte t) {
+        for (int k = 0; k < orderCount; k++) if (order[k] == t) return true;
+        return false;
+    }
+
+    /** 在当前格放 type 后其所在连通块的大小（左、上两块一定互不相连） */
+    private int groupIfPlaced(byte type, int left, byte tl, int up, byte tu) {
+        int size = 1;
+        if (left >= 0 && tl == type) size += group[left];
+        if (up >= 0 && tu == type) size += group[up];
+        return size;
+    }
+
+    /** 由新旧类型表得到置换：同类型的方块按原位置顺序依次分配 */
+    private int[] permutation() {
+        int n = board.size();
+        java.util.Arrays.fill(counts, 0);
+        for (int i = 0; i < n; i++) if (original[i] != Board.EMPTY) counts[original[i]]++;
+        bucketStart[0] = 0;
+        for (int t = 0; t < Board.MAX_TYPES; t++) bucketStart[t + 1] = bucketStart[t] + counts[t];
+        System.arraycopy(bucketStart, 0, bucketNext, 0, Board.MAX_TYPES);
+        for (int i = 0; i < n; i++) if (original[i] != Board.EMPTY) byType[bucketNext[original[i]]++] = i;
+        System.arraycopy(bucketStart, 0, bucketNext, 0, Board.MAX_TYPES);
+
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            byte t = board.get(i);
+            perm[i] = (t == Board.EMPTY) ? i : byType[bucketNext[t]++];
+        }
+        return perm;
+    }
+}
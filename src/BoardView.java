@@ -0,0 +1,504 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * 整个棋盘只用一个 JComponent 绘制：
+ * 所有方块、选中高亮、交换动画与消除动画都在同一次 paintComponent 中画出，
+ * 点击命中用算术换算格子，不再为每格创建 JButton。
+ *
+ * 视图持有一份“显示中的棋盘” shown：模型（{@link Board}）可能已经算到连消结束，
+ * 视图按步骤追赶，播放完毕后两者一致。
+ *
+ * 大棋盘（上千行列）放进 JScrollPane 使用：绘制时只遍历裁剪区（可见区域 / 脏区域）覆盖的格子，
+ * 动画、选中与提示只重绘涉及的格子范围；可缩放，格子小于 {@link #LOD_PX} 像素时改画纯色块。
+ * 内存只与格子数成正比（每格几个数组元素），不随组件数增长。
+ * 方块消除时迸出碎片粒子（{@link ParticleSystem}，固定容量、不分配），在同一次绘制里画在方块之上。
+ */
+public class BoardView extends JComponent implements Scrollable {
+
+    /** 点击格子回调 */
+    public interface CellListener {
+        void cellClicked(int cell);
+    }
+
+    /** 缩放范围 */
+    public static final float MIN_ZOOM = 0.05f, MAX_ZOOM = 4f;
+
+    /** 格子小于这个像素数时不再画贴图，改画该类型的平均色 */
+    public static final int LOD_PX = 6;
+
+    /** 粒子：容量、每个消除的方块迸出的数量、最长寿命 */
+    private static final int PARTICLE_CAPACITY = 1024;
+    private static final int PARTICLES_PER_TILE = 12;
+    private static final int PARTICLE_LIFE_MS = 600;
+
+    // ===== 网格参数（缩放前 / 缩放后） =====
+    private final int baseCellW, baseCellH, baseHgap, baseVgap;
+    private int cellW, cellH;
+    private int hgap, vgap;
+    private float zoom = 1f;
+
+    private final Board shown;          // 显示中的棋盘
+    private final Animator animator;    // 全局动画时钟
+    private final Image[] sprites = new Image[Board.MAX_TYPES]; // 每种类型的贴图（引用 SpriteAtlas）
+    private final Color[] flatColors = new Color[Board.MAX_TYPES]; // 缩得很小时用的纯色
+
+    // ===== 动画状态（按格子索引） =====
+    private final float[] offX, offY;   // 相对格子原位的像素偏移
+    private final float[] scale;        // 绘制缩放（消除时从 1 缩到 0）
+    private final float[] fromX, fromY; // 补间起点相对格子原位的偏移（下落 / 重排用）
+    private final int[] colSpawns;      // 每列本步补充的数量
+    private int selected = -1;          // 高亮的格子
+    private int hintA = -1, hintB = -1; // 提示的一对格子
+    private int animating;              // 进行中的动画数
+    private int animReach;              // 进行中的动画里方块离原位的最大像素距离（扩大裁剪用）
+    private static final Color HINT_FILL = new Color(255, 255, 255, 90);
+    private static final Color LOADING_FILL = new Color(255, 255, 255, 40);
+    private static final BasicStroke SELECT_STROKE = new BasicStroke(3f);
+    private static final BasicStroke HINT_STROKE = new BasicStroke(2f);
+    private static final Color PARTICLE_FALLBACK = new Color(220, 220, 220); // 平均色未知（贴图加载中）时的碎片颜色
+    private boolean loading;            // 加载中：只用已缓存的贴图，缺的先画占位块
+
+    private final ParticleSystem particles = new ParticleSystem(PARTICLE_CAPACITY);
+    private final Rectangle clipBuf = new Rectangle(); // 绘制时复用的裁剪区
+    private final Rectangle particleRegion = new Rectangle(); // 活着的粒子可能到达的范围；空表示没有粒子
+    private boolean particlesRunning;   // 推进粒子的补间是否在跑（全局只有一个）
+    private final Animator.Tween particleTween = this::stepParticles;
+    private final Runnable particleDone = this::particlesDone;
+
+    private CellListener listener;
+
+    public BoardView(Board board, Animator animator, int cellW, int cellH, int hgap, int vgap) {
+        if (cellW <= 0 || cellH <= 0) {
+            throw new IllegalArgumentException("Grid params invalid.");
+        }
+        this.shown = board.copy();
+        this.animator = animator;
+        this.baseCellW = this.cellW = cellW;
+        this.baseCellH = this.cellH = cellH;
+        this.baseHgap = this.hgap = Math.max(0, hgap);
+        this.baseVgap = this.vgap = Math.max(0, vgap);
+        int n = board.size();
+        this.offX = new float[n];
+        this.offY = new float[n];
+        this.scale = new float[n];
+        this.fromX = new float[n];
+        this.fromY = new float[n];
+        this.colSpawns = new int[board.cols()];
+        java.util.Arrays.fill(scale, 1f);
+        particles.setScale(cellH * 30f, Math.max(2, cellW / 6));
+
+        setOpaque(false);
+        setSize(getPreferredSize());
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0 && listener != null) listener.cellClicked(cell);
+            }
+        });
+    }
+
+    public void setCellListener(CellListener listener) { this.listener = listener; }
+
+    /** 加载状态：开启时不在 EDT 上解码贴图；关闭时重绘 */
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+        if (!loading) repaint();
+    }
+
+    /** 显示中的棋盘（只读使用） */
+    public Board getShown() { return shown; }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(shown.cols() * (cellW + hgap) - hgap, shown.rows() * (cellH + vgap) - vgap);
+    }
+
+    /* -------------------- 缩放与滚动 -------------------- */
+
+    public float getZoom() { return zoom; }
+
+    /** 缩放（格子与间距按比例取整，贴图按新尺寸从 SpriteAtlas 取） */
+    public void setZoom(float z) {
+        z = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, z));
+        if (z == zoom) return;
+        zoom = z;
+        int prevW = cellW, prevH = cellH;
+        cellW = Math.max(1, Math.round(baseCellW * z));
+        cellH = Math.max(1, Math.round(baseCellH * z));
+        hgap = Math.round(baseHgap * z);
+        vgap = Math.round(baseVgap * z);
+        // 贴图缓存只留新旧两种尺寸，来回缩放时不必重新缩放，内存也不随经过的尺寸数增长
+        if (cellW != prevW || cellH != prevH) SpriteAtlas.retainSizes(cellW, cellH, prevW, prevH);
+        java.util.Arrays.fill(sprites, null);
+        particles.clear();
+        particleRegion.setBounds(0, 0, 0, 0);
+        particles.setScale(cellH * 30f, Math.max(2, cellW / 6));
+        setSize(getPreferredSize());
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension d = getPreferredSize();
+        return new Dimension(Math.min(d.width, 800), Math.min(d.height, 600));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+        return orientation == SwingConstants.HORIZONTAL ? cellW + hgap : cellH + vgap;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+        return orientation == SwingConstants.HORIZONTAL ? visible.width : visible.height;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() { return false; }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() { return false; }
+
+    /* -------------------- 坐标换算 -------------------- */
+
+    /** 像素 -> 格子索引；落在间隙或棋盘外返回 -1 */
+    public int cellAt(int x, int y) {
+        if (x < 0 || y < 0) return -1;
+        int stepX = cellW + hgap, stepY = cellH + vgap;
+        int col = x / stepX, row = y / stepY;
+        if (x - col * stepX >= cellW || y - row * stepY >= cellH) return -1;
+        if (!shown.inBounds(row, col)) return -1;
+        return shown.index(row, col);
+    }
+
+    private int xOf(int cell) { return shown.colOf(cell) * (cellW + hgap); }
+    private int yOf(int cell) { return shown.rowOf(cell) * (cellH + vgap); }
+
+    /* -------------------- 选中高亮 -------------------- */
+
+    public void setSelected(int cell) {
+        if (selected == cell) return;
+        repaintCell(selected);
+        selected = cell;
+        repaintCell(selected);
+    }
+
+    public int getSelected() { return selected; }
+
+    /** 提示一对可交换的格子 */
+    public void setHint(int a, int b) {
+        clearHint();
+        hintA = a;
+        hintB = b;
+        repaintCell(hintA);
+        repaintCell(hintB);
+    }
+
+    public void clearHint() {
+        if (hintA < 0) return;
+        repaintCell(hintA);
+        repaintCell(hintB);
+        hintA = hintB = -1;
+    }
+
+    /** 直接改写若干格（撤销 / 重做），不播放动画 */
+    public void showCells(int[] cells, byte[] types) {
+        for (int i = 0; i < cells.length; i++) {
+            shown.set(cells[i], types[i]);
+            repaintCell(cells[i]);
+        }
+    }
+
+    /** 重绘一格（多留 2 像素给描边） */
+    private void repaintCell(int cell) {
+        if (cell >= 0) repaint(xOf(cell) - 2, yOf(cell) - 2, cellW + 4, cellH + 4);
+    }
+
+    /** 格子 cell 偏移 (dx, dy) 后占据的矩形并入 r（r 为 null 时新建） */
+    private Rectangle addCell(Rectangle r, int cell, float dx, float dy) {
+        int x = Math.round(xOf(cell) + dx), y = Math.round(yOf(cell) + dy);
+        if (r == null) return new Rectangle(x, y, cellW, cellH);
+        r.add(new Rectangle(x, y, cellW, cellH));
+        return r;
+    }
+
+    /** 开始一段动画：记录方块最远会离原位多远，绘制时据此扩大裁剪范围 */
+    private void beginAnim(int reach) {
+        animating++;
+        animReach = Math.max(animReach, reach);
+    }
+
+    private void endAnim() {
+        if (--animating == 0) animReach = 0;
+    }
+
+    /* -------------------- 动画 -------------------- */
+
+    /** 消除动画时长占一步的比例，其余为下落 */
+    private static final float REMOVE_SHARE = 0.45f;
+
+    /** 平滑交换两格；完成后 shown 中两格互换并执行回调。 */
+    public void animateSwap(int a, int b, int durationMs, Runnable onComplete) {
+        float dx = xOf(b) - xOf(a), dy = yOf(b) - yOf(a);
+        beginAnim(Math.round(Math.abs(dx) + Math.abs(dy)));
+        Rectangle region = addCell(addCell(null, a, 0, 0), b, 0, 0);
+        animator.animate(this, region, durationMs, Animator.EASE_IN_OUT_CUBIC, t -> {
+            offX[a] = dx * t;  offY[a] = dy * t;
+            offX[b] = -dx * t; offY[b] = -dy * t;
+        }, () -> {
+            offX[a] = offY[a] = offX[b] = offY[b] = 0f;
+            shown.swap(a, b);
+            endAnim();
+            if (onComplete != null) onComplete.run();
+        });
+    }
+
+    /** 播放一步连消：被消除的格子缩小消失，随后下落与补充（新方块从棋盘上方落入）。 */
+    public void animateStep(CascadeStep step, int durationMs, Runnable onComplete) {
+        int removeMs = Math.round(durationMs * REMOVE_SHARE);
+        Rectangle removeRegion = null;
+        for (int cell : step.removed) removeRegion = addCell(removeRegion, cell, 0, 0);
+        burst(step.removed, removeRegion);
+        beginAnim(0);
+        animator.animate(this, removeRegion, removeMs, Animator.EASE_IN_QUAD, t -> {
+            for (int cell : step.removed) scale[cell] = 1f - t;
+        }, () -> {
+            for (int cell : step.removed) {
+                scale[cell] = 1f;
+                shown.set(cell, Board.EMPTY);
+            }
+            // 下落区域：每个落点及其起点之间
+            int reach = applyFall(step);
+            Rectangle fallRegion = null;
+            for (int cell : step.moveTo) fallRegion = addCell(addCell(fallRegion, cell, 0, 0), cell, 0, fromY[cell]);
+            for (int cell : step.spawnCell) fallRegion = addCell(addCell(fallRegion, cell, 0, 0), cell, 0, fromY[cell]);
+            animReach = Math.max(animReach, reach); // 同一段动画继续，只扩大范围
+            animator.animate(this, fallRegion, durationMs - removeMs, Animator.EASE_OUT_QUAD, t -> {
+                for (int cell : step.moveTo) offY[cell] = fromY[cell] * (1f - t);
+                for (int cell : step.spawnCell) offY[cell] = fromY[cell] * (1f - t);
+            }, () -> {
+                for (int cell : step.moveTo) offY[cell] = 0f;
+                for (int cell : step.spawnCell) offY[cell] = 0f;
+                endAnim();
+                if (onComplete != null) onComplete.run();
+            });
+        });
+    }
+
+    /**
+     * 被消除的格子各迸出一把碎片（颜色取该类型的平均色）；缩得很小时不发。
+     * 所有粒子由同一个补间按动画时钟的帧时间推进，有活粒子时一轮结束就再续一轮；
+     * 每帧重绘的范围是各次迸发覆盖范围的并集，粒子全部死掉后清空。
+     */
+    private void burst(int[] cells, Rectangle region) {
+        if (region == null || cellW < LOD_PX || cellH < LOD_PX) return;
+        float speed = cellW * 6f, lifeSec = PARTICLE_LIFE_MS / 1000f;
+        int emitted = 0;
+        for (int cell : cells) {
+            byte type = shown.get(cell);
+            if (type == Board.EMPTY) continue;
+            flatColorOf(type); // 贴图已加载时顺便缓存平均色；加载中缓存不了，绘制时用 PARTICLE_FALLBACK
+            emitted += particles.burst(xOf(cell) + cellW / 2f, yOf(cell) + cellH / 2f, type,
+                    PARTICLES_PER_TILE, speed, lifeSec);
+        }
+        if (emitted == 0) return;
+        // 覆盖范围：横向与上方最远 1.5 倍速度 x 寿命，下方再加上重力落下的距离
+        int side = Math.round(speed * lifeSec * 1.5f);
+        int below = Math.round(speed * lifeSec + cellH * 15f * lifeSec * lifeSec);
+        Rectangle r = new Rectangle(region.x - side, region.y - side,
+                region.width + 2 * side, region.height + side + below);
+        if (particleRegion.isEmpty()) particleRegion.setBounds(r);
+        else particleRegion.add(r);
+        if (!particlesRunning) {
+            particlesRunning = true;
+            animator.animate(null, PARTICLE_LIFE_MS, Animator.LINEAR, particleTween, particleDone);
+        }
+    }
+
+    /** 粒子补间：用本帧时间戳推进一次，并声明粒子覆盖范围为脏区域 */
+    private void stepParticles(float t) {
+        if (particles.size() == 0) return;
+        particles.update(animator.frameTimeNanos());
+        // 最后一批粒子死掉的这一帧也要重绘一次，把它们擦掉
+        animator.markDirty(this, particleRegion);
+        if (particles.size() == 0) particleRegion.setBounds(0, 0, 0, 0);
+    }
+
+    /** 一轮结束：还有活粒子（后来的迸发、卡顿延长了寿命）就再续一轮 */
+    private void particlesDone() {
+        if (particles.size() > 0) {
+            animator.animate(null, PARTICLE_LIFE_MS, Animator.LINEAR, particleTween, particleDone);
+        } else {
+            particlesRunning = false;
+        }
+    }
+
+    /**
+     * 死局重排：所有方块同时从原位置滑到新位置（一批动画）。
+     *
+     * @param perm 新第 i 格的方块来自原第 perm[i] 格
+     */
+    public void animateShuffle(int[] perm, int durationMs, Runnable onComplete) {
+        int n = shown.size();
+        byte[] types = new byte[n];
+        for (int i = 0; i < n; i++) types[i] = shown.get(perm[i]);
+        int reach = 0;
+        for (int i = 0; i < n; i++) {
+            shown.set(i, types[i]);
+            fromX[i] = offX[i] = xOf(perm[i]) - xOf(i);
+            fromY[i] = offY[i] = yOf(perm[i]) - yOf(i);
+            reach = Math.max(reach, Math.round(Math.abs(fromX[i]) + Math.abs(fromY[i])));
+        }
+        beginAnim(reach);
+        animator.animate(this, durationMs, Animator.EASE_IN_OUT_CUBIC, t -> {
+            for (int i = 0; i < n; i++) {
+                offX[i] = fromX[i] * (1f - t);
+                offY[i] = fromY[i] * (1f - t);
+            }
+        }, () -> {
+            java.util.Arrays.fill(offX, 0f);
+            java.util.Arrays.fill(offY, 0f);
+            endAnim();
+            if (onComplete != null) onComplete.run();
+        });
+    }
+
+    /**
+     * 把下落与补充写入 shown，并记录每个落点的起始偏移。
+     *
+     * @return 最大下落距离（像素）
+     */
+    private int applyFall(CascadeStep step) {
+        int stepY = cellH + vgap;
+        float reach = 0f;
+        for (int i = 0; i < step.moveCount(); i++) {
+            int from = step.moveFrom[i], to = step.moveTo[i];
+            shown.set(to, shown.get(from));
+            shown.set(from, Board.EMPTY);
+            fromY[to] = (shown.rowOf(from) - shown.rowOf(to)) * stepY;
+            offY[to] = fromY[to];
+            reach = Math.max(reach, -fromY[to]);
+        }
+        java.util.Arrays.fill(colSpawns, 0);
+        for (int cell : step.spawnCell) colSpawns[shown.colOf(cell)]++;
+        for (int i = 0; i < step.spawnCount(); i++) {
+            int cell = step.spawnCell[i];
+            shown.set(cell, step.spawnType[i]);
+            fromY[cell] = -colSpawns[shown.colOf(cell)] * stepY;
+            offY[cell] = fromY[cell];
+            reach = Math.max(reach, -fromY[cell]);
+        }
+        return Math.round(reach);
+    }
+
+    /* -------------------- 绘制 -------------------- */
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        PerfEvents.BoardPaint event = PerfEvents.BOARD_PAINT.isEnabled() ? new PerfEvents.BoardPaint() : null;
+        if (event != null) event.begin();
+        long t0 = System.nanoTime();
+
+        // 只遍历裁剪区覆盖的行列；动画中的方块可能离原位 animReach 像素，范围相应放大
+        clipBuf.setBounds(0, 0, getWidth(), getHeight()); // 没有裁剪区时就是整个组件
+        Rectangle clip = g2.getClipBounds(clipBuf);
+        int stepX = cellW + hgap, stepY = cellH + vgap;
+        int col0 = Math.max(0, (clip.x - animReach) / stepX);
+        int col1 = Math.min(shown.cols() - 1, (clip.x + clip.width + animReach) / stepX);
+        int row0 = Math.max(0, (clip.y - animReach) / stepY);
+        int row1 = Math.min(shown.rows() - 1, (clip.y + clip.height + animReach) / stepY);
+        boolean flat = cellW < LOD_PX || cellH < LOD_PX;
+
+        for (int row = row0; row <= row1; row++) {
+            int cell = shown.index(row, col0);
+            for (int col = col0; col <= col1; col++, cell++) {
+                byte type = shown.get(cell);
+                if (type == Board.EMPTY || scale[cell] <= 0f) continue;
+                int x = Math.round(xOf(cell) + offX[cell]);
+                int y = Math.round(yOf(cell) + offY[cell]);
+                if (flat) {
+                    g2.setColor(flatColorOf(type));
+                    g2.fillRect(x, y, cellW, cellH);
+                    continue;
+                }
+                Image img = spriteOf(type);
+                if (img == null) {
+                    if (loading) {
+                        g2.setColor(LOADING_FILL);
+                        g2.fillRoundRect(x, y, cellW, cellH, 8, 8);
+                    }
+                    continue;
+                }
+
+                float s = scale[cell];
+                if (s >= 1f) {
+                    g2.drawImage(img, x, y, null);
+                } else {
+                    int w = Math.round(cellW * s), h = Math.round(cellH * s);
+                    g2.drawImage(img, x + (cellW - w) / 2, y + (cellH - h) / 2, w, h, null);
+                }
+            }
+        }
+
+        // 碎片粒子：一遍画完
+        if (particles.size() > 0) particles.paint(g2, clip, flatColors, PARTICLE_FALLBACK);
+
+        // 提示：半透明白底 + 青色描边
+        if (hintA >= 0) {
+            paintHint(g2, hintA);
+            paintHint(g2, hintB);
+        }
+
+        // 选中高亮（第一次点击的“准备”状态）
+        if (selected >= 0) {
+            g2.setColor(Color.YELLOW);
+            g2.setStroke(SELECT_STROKE);
+            g2.drawRoundRect(xOf(selected) + 1, yOf(selected) + 1, cellW - 3, cellH - 3, 8, 8);
+        }
+
+        Metrics.PAINT.record(System.nanoTime() - t0);
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.cells = (row1 - row0 + 1) * (col1 - col0 + 1);
+            event.commit();
+        }
+    }
+
+    private void paintHint(Graphics2D g2, int cell) {
+        g2.setColor(HINT_FILL);
+        g2.fillRoundRect(xOf(cell), yOf(cell), cellW, cellH, 8, 8);
+        g2.setColor(Color.CYAN);
+        g2.setStroke(HINT_STROKE);
+        g2.drawRoundRect(xOf(cell) + 1, yOf(cell) + 1, cellW - 3, cellH - 3, 8, 8);
+    }
+
+    /** 每种类型的贴图来自共享的 SpriteAtlas，这里只缓存引用避免每帧查表 */
+    private Image spriteOf(byte type) {
+        Image img = sprites[type];
+        if (img != null) return img;
+        if (loading) return SpriteAtlas.peek(Board.typeKey(type), cellW, cellH); // 缺失时不缓存，加载完再取
+        img = SpriteAtlas.get(Board.typeKey(type), cellW, cellH);
+        sprites[type] = img;
+        return img;
+    }
+
+    /** 贴图缩到 1x1 的颜色（即平均色）；贴图缺失时为灰色 */
+    private Color flatColorOf(byte type) {
+        Color c = flatColors[type];
+        if (c != null) return c;
+        if (loading && SpriteAtlas.peekSource(Board.typeKey(type)) == null) return LOADING_FILL;
+        java.awt.image.BufferedImage px = SpriteAtlas.get(Board.typeKey(type), 1, 1);
+        c = px == null ? Color.GRAY : new Color(px.getRGB(0, 0), true);
+        flatColors[type] = c;
+        return c;
+    }
+}
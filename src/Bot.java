@@ -0,0 +1,23 @@
+import java.util.Random;
+
+/**
+ * 无界面模拟用的自动玩家：根据当前棋盘选择一步交换（{@link Moves} 编码）。
+ */
+public interface Bot {
+
+    /** 选一步交换；无可走时返回 {@link Moves#NONE} */
+    int chooseMove(Board board, Random rng);
+
+    /** 名称（用于命令行与报告） */
+    String name();
+
+    /** 按名称创建：random / greedy / solver */
+    static Bot byName(String name) {
+        switch (name) {
+            case "random": return new RandomBot();
+            case "greedy": return new GreedyBot();
+            case "solver": return new SolverBot();
+            default: throw new IllegalArgumentException("Unknown bot: " + name);
+        }
+    }
+}
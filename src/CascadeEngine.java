@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 连消引擎：在 {@link Board} 模型上一次性完成“消除 -> 按列下落 -> 顶部补充 -> 再判定”，直到棋盘稳定。
+ * 结果是有序的 {@link CascadeStep} 列表，UI 按顺序播放即可，每一步只需一次 revalidate/repaint。
+ * 补充方块来自带种子的随机数，相同种子 + 相同操作得到相同的棋盘。
+ * 结算结束时棋盘一定是稳定的（没有现成的消除）：连消超过 {@link #MAX_STEPS} 步时整盘重新生成。
+ */
+public class CascadeEngine {
+
+    /**
+     * 单次结算最多的连消步数。类型相对棋盘太少时（例如 8x8 三种、40x40 四种）随机补充几乎总会再凑成消除，
+     * 连消停不下来；超过这个步数就用 {@link BoardGenerator} 整盘重新生成，作为最后一步（全部消除、全部补充）。
+     */
+    public static final int MAX_STEPS = 1_000;
+
+    private final Board board;
+    private final byte[] palette;   // 可补充的类型 id
+    private final Random rng;
+    private final MatchSet matches;
+    private final MoveGenerator moves;
+    private final BoardShuffler shuffler;
+    private BoardGenerator generator;   // 首次生成时创建
+
+    // ===== 复用缓冲区 =====
+    private final int[] changed;    // 下一轮增量判定的起点格
+    private int changedCount;
+    private final int[] moveFrom, moveTo, spawnCell;
+    private final byte[] spawnType;
+    private final int[] colBottom;  // 每列本步最低的消除行；-1 表示该列没有消除
+
+    public CascadeEngine(Board board, byte[] palette, long seed) {
+        if (palette == null || palette.length == 0) {
+            throw new IllegalArgumentException("Palette is empty.");
+        }
+        if (distinctTypes(palette) < Match3Manager.MIN_MATCH) {
+            throw new IllegalArgumentException("At least " + Match3Manager.MIN_MATCH + " distinct tile types required.");
+        }
+        this.board = board;
+        this.palette = palette.clone();
+        this.rng = new Random(seed);
+        this.matches = new MatchSet(board.size());
+        this.moves = new MoveGenerator(board);
+        this.shuffler = new BoardShuffler(board, moves, palette);
+        int n = board.size();
+        this.changed = new int[n];
+        this.moveFrom = new int[n];
+        this.moveTo = new int[n];
+        this.spawnCell = new int[n];
+        this.spawnType = new byte[n];
+        this.colBottom = new int[board.cols()];
+        Arrays.fill(colBottom, -1);
+    }
+
+    public Board getBoard() { return board; }
+
+    /** 绑定在本棋盘上的可消除交换生成器 */
+    public MoveGenerator getMoveGenerator() { return moves; }
+
+    /** 重设随机种子（搜索中用来让同一局面的补充可复现） */
+    public void reseed(long seed) {
+        rng.setSeed(seed);
+    }
+
+    /** 从本引擎的随机数取一个新种子（随机数状态交给外部保存时，下次用 {@link #reseed} 接上） */
+    public long nextSeed() {
+        return rng.nextLong();
+    }
+
+    /**
+     * 用本引擎的随机数与补充类型生成一个新棋盘：没有现成的消除、至少有一步可走（见 {@link BoardGenerator}）。
+     * 需要至少 3 种不同类型。
+     */
+    public void generate() {
+        if (generator == null) generator = new BoardGenerator(board);
+        generator.fill(palette, rng);
+    }
+
+    /** 随机取一个补充类型 */
+    public byte nextType() {
+        return palette[rng.nextInt(palette.length)];
+    }
+
+    /**
+     * 交换之后调用：从改动的格子出发做增量判定，并一路连消到稳定。
+     *
+     * @param cells 本次改动的格子（例如交换的两格）
+     * @return 有序的步骤列表；无匹配时为空列表
+     */
+    public List<CascadeStep> resolve(int[] cells, int count) {
+        List<CascadeStep> steps = new ArrayList<>();
+        int found = Match3Manager.findMatchesAt(board, cells, count, matches);
+        while (found > 0) {
+            if (steps.size() >= MAX_STEPS) {
+                steps.add(regenerate());
+                break;
+            }
+            steps.add(applyStep());
+            found = Match3Manager.findMatchesAt(board, changed, changedCount, matches);
+        }
+        return steps;
+    }
+
+    /** 不依赖改动信息的版本：先全盘扫描，再连消到稳定。 */
+    public List<CascadeStep> resolveAll() {
+        List<CascadeStep> steps = new ArrayList<>();
+        int found = Match3Manager.findMatches(board, matches);
+        while (found > 0) {
+            if (steps.size() >= MAX_STEPS) {
+                steps.add(regenerate());
+                break;
+            }
+            steps.add(applyStep());
+            found = Match3Manager.findMatchesAt(board, changed, changedCount, matches);
+        }
+        return steps;
+    }
+
+    /** 同 {@link #resolveAll()}，但不保留步骤（只要最终棋盘时用，例如开局；大棋盘上步骤列表会很大） */
+    public int stabilize() {
+        int steps = 0;
+        int found = Match3Manager.findMatches(board, matches);
+        while (found > 0) {
+            if (steps >= MAX_STEPS) {
+                generate();
+                return steps + 1;
+            }
+            applyStep();
+            steps++;
+            found = Match3Manager.findMatchesAt(board, changed, changedCount, matches);
+        }
+        return steps;
+    }
+
+    /**
+     * 棋盘稳定后调用：若已无可消除的交换，用本引擎的随机数重排现有方块。
+     *
+     * @return 重排的置换表（见 {@link BoardShuffler#reshuffle}）；未死局或无法重排时返回 null
+     */
+    public int[] shuffleIfDeadlocked() {
+        if (!shuffler.isDeadlocked()) return null;
+        return shuffler.reshuffle(rng);
+    }
+
+    /** 连消停不下来时的最后一步：整盘重新生成（没有现成的消除、至少一步可走），表示为全部消除 + 全部补充 */
+    private CascadeStep regenerate() {
+        int n = board.size();
+        int removedCount = 0;
+        for (int i = 0; i < n; i++) if (!board.isEmpty(i)) removedCount++;
+        int[] removed = new int[removedCount];
+        for (int i = 0, k = 0; i < n; i++) if (!board.isEmpty(i)) removed[k++] = i;
+        generate();
+        int[] cells = new int[n];
+        byte[] types = new byte[n];
+        // 与 applyStep 相同，补充自下而上排列
+        for (int i = 0; i < n; i++) {
+            cells[i] = n - 1 - i;
+            types[i] = board.get(cells[i]);
+        }
+        changedCount = 0;
+        return new CascadeStep(removed, new int[0], new int[0], cells, types);
+    }
+
+    private static int distinctTypes(byte[] palette) {
+        boolean[] seen = new boolean[256];
+        int n = 0;
+        for (byte t : palette) {
+            if (!seen[t & 0xff]) {
+                seen[t & 0xff] = true;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** 对当前 matches 执行一步：消除、下落、补充；记录下一轮要判定的格子。 */
+    private CascadeStep applyStep() {
+        int[] removed = new int[matches.size()];
+        for (int k = 0; k < removed.length; k++) {
+            removed[k] = matches.get(k);
+            board.set(removed[k], Board.EMPTY);
+            int col = board.colOf(removed[k]);
+            colBottom[col] = Math.max(colBottom[col], board.rowOf(removed[k]));
+        }
+        Arrays.sort(removed);
+
+        int cols = board.cols();
+        int moves = 0, spawns = 0;
+        changedCount = 0;
+
+        for (int col = 0; col < cols; col++) {
+            // 只处理有消除的列，且只从最低的消除格往上压实（大棋盘上每步不必扫全盘）
+            int bottom = colBottom[col];
+            if (bottom < 0) continue;
+            colBottom[col] = -1;
+            // 从下往上压实：write 指向下一个要填的格子
+            int write = bottom;
+            for (int row = bottom; row >= 0; row--) {
+                int from = board.index(row, col);
+                if (board.isEmpty(from)) continue;
+                if (row != write) {
+                    int to = board.index(write, col);
+                    board.set(to, board.get(from));
+                    board.set(from, Board.EMPTY);
+                    moveFrom[moves] = from;
+                    moveTo[moves] = to;
+                    moves++;
+                    changed[changedCount++] = to;
+                }
+                write--;
+            }
+            // 顶部剩余空格由随机数补充（自下而上生成，便于 UI 依次落下）
+            for (int row = write; row >= 0; row--) {
+                int cell = board.index(row, col);
+                byte type = nextType();
+                board.set(cell, type);
+                spawnCell[spawns] = cell;
+                spawnType[spawns] = type;
+                spawns++;
+                changed[changedCount++] = cell;
+            }
+        }
+
+        return new CascadeStep(removed,
+                Arrays.copyOf(moveFrom, moves), Arrays.copyOf(moveTo, moves),
+                Arrays.copyOf(spawnCell, spawns), Arrays.copyOf(spawnType, spawns));
+    }
+}
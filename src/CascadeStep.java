@@ -0,0 +1,25 @@
+/**
+ * 连消中的一步：先消除 removed，再按顺序执行下落 moveFrom[i] -> moveTo[i]，最后在 spawnCell 生成新方块。
+ * 所有数组均为格子索引（row * cols + col），由 {@link CascadeEngine} 在模型上一次性算出，UI 只负责按顺序播放。
+ */
+public class CascadeStep {
+    /** 本步被消除的格子 */
+    public final int[] removed;
+    /** 下落：起点格 -> 终点格（同列，终点在下方） */
+    public final int[] moveFrom;
+    public final int[] moveTo;
+    /** 补充：新方块所在格与其类型 id */
+    public final int[] spawnCell;
+    public final byte[] spawnType;
+
+    public CascadeStep(int[] removed, int[] moveFrom, int[] moveTo, int[] spawnCell, byte[] spawnType) {
+        this.removed = removed;
+        this.moveFrom = moveFrom;
+        this.moveTo = moveTo;
+        this.spawnCell = spawnCell;
+        this.spawnType = spawnType;
+    }
+
+    public int moveCount() { return moveFrom.length; }
+    public int spawnCount() { return spawnCell.length; }
+}
@@ -0,0 +1,64 @@
+import javax.swing.*;
+
+/**
+ * EDT 卡顿检测：后台守护线程定期往 EDT 投递一个空任务，测量从投递到执行的延迟，
+ * 记入 {@link Metrics#EDT_LAG}；超过 {@link #STALL_MS} 视为一次卡顿，发出 JFR 事件并计数。
+ */
+public final class EdtWatchdog {
+
+    /** 探测间隔（毫秒） */
+    public static final int PROBE_MS = 50;
+
+    /** 延迟超过多少毫秒算卡顿 */
+    public static final int STALL_MS = 100;
+
+    private static volatile long stalls;
+    private static Thread thread;
+
+    private EdtWatchdog() {}
+
+    /** 启动（重复调用无效） */
+    public static synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(EdtWatchdog::run, "EdtWatchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** 已检测到的卡顿次数 */
+    public static long stalls() { return stalls; }
+
+    private static void run() {
+        Object lock = new Object();
+        boolean[] done = new boolean[1];
+        while (true) {
+            long posted = System.nanoTime();
+            done[0] = false;
+            SwingUtilities.invokeLater(() -> {
+                long lag = System.nanoTime() - posted;
+                Metrics.EDT_LAG.record(lag);
+                if (lag >= STALL_MS * 1_000_000L) {
+                    stalls++;
+                    PerfEvents.EdtStall event = new PerfEvents.EdtStall();
+                    if (event.isEnabled()) {
+                        event.lagNanos = lag;
+                        event.commit();
+                    }
+                }
+                synchronized (lock) {
+                    done[0] = true;
+                    lock.notifyAll();
+                }
+            });
+            try {
+                // 等上一次探测执行完再投递下一次，卡顿期间不会堆积探测任务
+                synchronized (lock) {
+                    while (!done[0]) lock.wait();
+                }
+                Thread.sleep(PROBE_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 游戏逻辑线程：独占 {@link GameSession}（模型、连消、重排、回放记录都在这个线程上执行），
+ * 与 EDT 之间只通过两个 {@link SpscRing} 交换数据，不加锁：
+ * EDT -> 逻辑线程是交换 / 提示请求，逻辑线程 -> EDT 是 {@link BoardEvent}，EDT 每帧取一次。
+ * 没有请求时逻辑线程 park；事件缓冲区满（EDT 播放跟不上）时退避等待，不丢事件。
+ */
+public class GameLogic {
+
+    /** 请求缓冲区容量 */
+    public static final int COMMAND_CAPACITY = 64;
+    /** 事件缓冲区容量 */
+    public static final int EVENT_CAPACITY = 1024;
+
+    private static final int CMD_SWAP = 0, CMD_HINT = 1, CMD_UNDO = 2, CMD_REDO = 3;
+
+    /** EDT 发来的请求 */
+    private static final class Command {
+        final int kind, a, b;
+
+        Command(int kind, int a, int b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    private final GameSession session;
+    private final Board board;
+    private final MoveGenerator moves;
+    private final SpscRing<Command> commands = new SpscRing<>(COMMAND_CAPACITY);
+    private final SpscRing<BoardEvent> events = new SpscRing<>(EVENT_CAPACITY);
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean rejectNonMatching = false;
+
+    /** 创建后模型只能由逻辑线程访问 */
+    public GameLogic(GameSession session) {
+        this.session = session;
+        this.board = session.getBoard();
+        this.moves = session.getEngine().getMoveGenerator();
+        this.thread = new Thread(this::run, "GameLogic");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() { thread.start(); }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /** 开关“拒绝不能消除的交换” */
+    public void setRejectNonMatching(boolean reject) { this.rejectNonMatching = reject; }
+
+    /* -------------------- EDT 侧 -------------------- */
+
+    /** 请求交换两格（调用方已校验相邻）；请求缓冲区满时返回 false */
+    public boolean requestSwap(int a, int b) {
+        return send(new Command(CMD_SWAP, a, b));
+    }
+
+    /** 请求一次提示（结果以 HINT 事件返回，没有可走时 a、b 为 -1） */
+    public boolean requestHint() {
+        return send(new Command(CMD_HINT, -1, -1));
+    }
+
+    /** 请求撤销 / 重做一步（结果以 RESTORE 或 REJECT 事件返回） */
+    public boolean requestUndo() {
+        return send(new Command(CMD_UNDO, -1, -1));
+    }
+
+    public boolean requestRedo() {
+        return send(new Command(CMD_REDO, -1, -1));
+    }
+
+    /** 取出当前全部事件 */
+    public int drainEvents(Consumer<BoardEvent> sink) {
+        return events.drain(sink, EVENT_CAPACITY);
+    }
+
+    private boolean send(Command c) {
+        if (!commands.offer(c)) return false;
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    /* -------------------- 逻辑线程 -------------------- */
+
+    private void run() {
+        while (running) {
+            Command c = commands.poll();
+            if (c == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            switch (c.kind) {
+                case CMD_SWAP: swap(c.a, c.b); break;
+                case CMD_HINT: hint(); break;
+                case CMD_UNDO: restore(session.undo()); break;
+                case CMD_REDO: restore(session.redo()); break;
+                default: break;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        if (rejectNonMatching && moves.evaluate(a, b) == 0) {
+            publish(BoardEvent.reject(a, b));
+            return;
+        }
+        publish(BoardEvent.swap(a, b));
+        List<CascadeStep> steps = session.applyMove(Moves.of(board, a, b));
+        for (int k = 0; k < steps.size(); k++) publish(BoardEvent.step(steps.get(k)));
+        int[] perm = session.lastShuffle();
+        if (perm != null) publish(BoardEvent.shuffle(perm));
+        publish(BoardEvent.end());
+    }
+
+    /** 撤销 / 重做后把改写过的格子及其新类型发给 EDT；cells 为 null 表示没有可撤销 / 重做的 */
+    private void restore(int[] cells) {
+        if (cells == null) {
+            publish(BoardEvent.reject(-1, -1));
+            return;
+        }
+        byte[] types = new byte[cells.length];
+        for (int i = 0; i < cells.length; i++) types[i] = board.get(cells[i]);
+        publish(BoardEvent.restore(cells, types));
+    }
+
+    private void hint() {
+        int best = moves.bestMove();
+        if (best == Moves.NONE) publish(BoardEvent.hint(-1, -1));
+        else publish(BoardEvent.hint(Moves.first(best), Moves.second(best, board.cols())));
+    }
+
+    /** 放入事件；缓冲区满时先自旋再短暂 park，直到 EDT 取走 */
+    private void publish(BoardEvent e) {
+        int spins = 0;
+        while (!events.offer(e)) {
+            if (!running) return;
+            if (++spins < 100) Thread.onSpinWait();
+            else LockSupport.parkNanos(100_000L);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 带种子的一局游戏：棋盘大小、补充类型和种子决定初始棋盘与之后全部补充 / 重排，
+ * 相同的种子 + 相同的交换序列一定得到相同的棋盘（{@link ReplayLog} 依赖这一点）。
+ * 规则与 {@link SwapManager} 相同：交换后连消到稳定，稳定后若成死局则重排。
+ * 每步结算后记入 {@link BoardHistory}，可以无限撤销 / 重做；撤销与重做同样写进回放。
+ */
+public class GameSession {
+    private final Board board;
+    private final CascadeEngine engine;
+    private final byte[] palette;
+    private final long seed;
+    private final int[] changed = new int[2];
+    private ReplayLog.Writer recorder;  // 非 null 时每步追加到回放文件
+    private int moveCount;
+    private int[] lastShuffle;          // 上一步结算后的重排置换；未重排为 null
+    private final BoardHistory history;
+    private int[] restored;             // 撤销 / 重做时改写过的格子（首次撤销时分配）
+
+    /**
+     * @param palette 补充类型 id（顺序也是回放的一部分），至少 3 种不同类型
+     * @param seed    随机种子
+     */
+    public GameSession(int rows, int cols, byte[] palette, long seed) {
+        this.board = new Board(rows, cols);
+        this.palette = palette.clone();
+        this.seed = seed;
+        this.engine = new CascadeEngine(board, palette, seed);
+        engine.generate(); // 初始棋盘：没有现成的消除、至少有一步可走
+        engine.shuffleIfDeadlocked(); // 小到埋不下可走一步的棋盘才可能用到
+        this.history = new BoardHistory(board);
+    }
+
+    public Board getBoard() { return board; }
+    public CascadeEngine getEngine() { return engine; }
+    public long seed() { return seed; }
+    public int moveCount() { return moveCount; }
+
+    /** 补充类型 id（副本） */
+    public byte[] palette() { return palette.clone(); }
+
+    /** 开始把之后的每一步追加到回放文件（传 null 停止记录，不关闭原文件） */
+    public void setRecorder(ReplayLog.Writer recorder) { this.recorder = recorder; }
+
+    /**
+     * 执行一步交换：连消到稳定，死局则重排（由 {@link #lastShuffle()} 取置换）。
+     *
+     * @param move {@link Moves} 编码
+     * @return 本步的连消步骤
+     */
+    public List<CascadeStep> applyMove(int move) {
+        if (!Moves.isValid(board, move)) throw new IllegalArgumentException("Invalid move: " + move);
+        PerfEvents.MoveResolved event = new PerfEvents.MoveResolved();
+        event.begin();
+        long t0 = System.nanoTime();
+        int a = Moves.first(move), b = Moves.second(move, board.cols());
+        board.swap(a, b);
+        changed[0] = a;
+        changed[1] = b;
+        List<CascadeStep> steps = engine.resolve(changed, 2);
+        lastShuffle = engine.shuffleIfDeadlocked();
+        recordHistory(a, b, steps);
+        moveCount++;
+        Metrics.MOVE.record(System.nanoTime() - t0);
+        event.end();
+        if (event.shouldCommit()) {
+            event.move = move;
+            event.steps = steps.size();
+            for (int k = 0; k < steps.size(); k++) event.cleared += steps.get(k).removed.length;
+            event.shuffled = lastShuffle != null;
+            event.commit();
+        }
+        record(move);
+        return steps;
+    }
+
+    /** 把这一步改动过的格子记成新的历史快照 */
+    private void recordHistory(int a, int b, List<CascadeStep> steps) {
+        if (lastShuffle != null) {
+            history.touchAll();
+        } else {
+            history.touch(a);
+            history.touch(b);
+            for (int k = 0; k < steps.size(); k++) {
+                CascadeStep step = steps.get(k);
+                for (int cell : step.removed) history.touch(cell);
+                for (int cell : step.moveFrom) history.touch(cell);
+                for (int cell : step.moveTo) history.touch(cell);
+                for (int cell : step.spawnCell) history.touch(cell);
+            }
+        }
+        history.commit();
+    }
+
+    private void record(int op) {
+        if (recorder == null) return;
+        try {
+            recorder.append(op);
+        } catch (IOException e) {
+            System.err.println("⚠️ 回放记录写入失败，已停止记录: " + e.getMessage());
+            recorder = null;
+        }
+    }
+
+    /* -------------------- 撤销 / 重做 -------------------- */
+
+    public boolean canUndo() { return history.canUndo(); }
+    public boolean canRedo() { return history.canRedo(); }
+
+    /** 历史快照数（包括初始棋盘）与当前所在位置 */
+    public int historySize() { return history.size(); }
+    public int historyIndex() { return history.index(); }
+
+    /**
+     * 撤销一步。
+     *
+     * @return 改写过的格子（新数组）；没有可撤销的返回 null
+     */
+    public int[] undo() {
+        if (!history.canUndo()) return null;
+        record(ReplayLog.UNDO);
+        return restore(history.index() - 1);
+    }
+
+    /** 重做一步；没有可重做的返回 null */
+    public int[] redo() {
+        if (!history.canRedo()) return null;
+        record(ReplayLog.REDO);
+        return restore(history.index() + 1);
+    }
+
+    /**
+     * 直接跳到第 index 步（0 为初始棋盘），代价与两步之间不同的格子数成正比。
+     * 回放中记为相应次数的撤销 / 重做。
+     */
+    public int[] jumpTo(int index) {
+        if (index < 0 || index >= history.size()) throw new IllegalArgumentException("index out of range: " + index);
+        for (int k = history.index(); k > index; k--) record(ReplayLog.UNDO);
+        for (int k = history.index(); k < index; k++) record(ReplayLog.REDO);
+        return restore(index);
+    }
+
+    private int[] restore(int index) {
+        if (restored == null) restored = new int[board.size()];
+        int n = history.restore(index, restored);
+        lastShuffle = null;
+        return java.util.Arrays.copyOf(restored, n);
+    }
+
+    /** 上一步结算后的重排置换（见 {@link BoardShuffler#reshuffle}）；未重排为 null */
+    public int[] lastShuffle() { return lastShuffle; }
+}
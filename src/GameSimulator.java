@@ -0,0 +1,160 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 无界面模拟器：在 {@link GameSession} 上执行与 {@link SwapManager} 相同的规则
+ * （仅相邻可交换、交换后连消到稳定），由 {@link Bot} 自动走子，用于回归规则改动和测量引擎吞吐。
+ *
+ * 命令行：
+ * <pre>
+ * java GameSimulator --games 100 --moves 500 --rows 8 --cols 8 --types 6 --seed 1 --bot greedy
+ * </pre>
+ */
+public class GameSimulator {
+
+    /** 统计结果 */
+    public static final class Stats {
+        public long games;
+        public long moves;
+        public long matchingMoves;   // 产生了消除的步数
+        public long cascades;        // 连消步数总和
+        public long cleared;         // 被消除的方块总数
+        public long shuffles;        // 死局重排次数
+        public long nanos;
+        public long allocatedBytes;  // 本线程分配的字节数（JVM 不支持时为 -1）
+
+        void add(Stats o) {
+            games += o.games;
+            moves += o.moves;
+            matchingMoves += o.matchingMoves;
+            cascades += o.cascades;
+            cleared += o.cleared;
+            shuffles += o.shuffles;
+            nanos += o.nanos;
+            allocatedBytes = (allocatedBytes < 0 || o.allocatedBytes < 0) ? -1 : allocatedBytes + o.allocatedBytes;
+        }
+
+        public double movesPerSecond() { return nanos == 0 ? 0 : moves * 1e9 / nanos; }
+        public double cascadesPerMove() { return moves == 0 ? 0 : cascades / (double) moves; }
+        public double bytesPerMove() { return (moves == 0 || allocatedBytes < 0) ? -1 : allocatedBytes / (double) moves; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "games=%d moves=%d matching=%.1f%% cascades/move=%.3f cleared/move=%.2f shuffles=%d "
+                            + "moves/sec=%.0f alloc/move=%s",
+                    games, moves, moves == 0 ? 0 : matchingMoves * 100.0 / moves, cascadesPerMove(),
+                    moves == 0 ? 0 : cleared / (double) moves, shuffles, movesPerSecond(),
+                    allocatedBytes < 0 ? "n/a" : String.format("%.0fB (%.1f MB/s)", bytesPerMove(),
+                            nanos == 0 ? 0 : allocatedBytes / 1048576.0 * 1e9 / nanos));
+        }
+    }
+
+    private final GameSession session;
+    private final Board board;
+    private boolean shuffled;
+
+    /**
+     * @param types 方块种类数（取前 types 张 Block 图片的类型 id）
+     * @param seed  随机种子：决定初始棋盘与之后所有补充
+     */
+    public GameSimulator(int rows, int cols, int types, long seed) {
+        this.session = new GameSession(rows, cols, defaultPalette(types), seed);
+        this.board = session.getBoard();
+    }
+
+    public Board getBoard() { return board; }
+    public GameSession getSession() { return session; }
+
+    /** 与 MainWindow 相同的类型来源：/Block_001.png 起的前 types 张 */
+    public static byte[] defaultPalette(int types) {
+        if (types < Match3Manager.MIN_MATCH || types > Board.MAX_TYPES) {
+            throw new IllegalArgumentException("types out of range: " + types);
+        }
+        byte[] palette = new byte[types];
+        for (int i = 0; i < types; i++) palette[i] = Board.typeId(String.format("/Block_%03d.png", i + 1));
+        return palette;
+    }
+
+    /**
+     * 执行一步交换（规则同 SwapManager）；结算后若成死局则重排，由 {@link #lastMoveShuffled()} 报告。
+     *
+     * @return 本步的连消步骤；不相邻时返回 null
+     */
+    public List<CascadeStep> applyMove(int a, int b) {
+        if (!board.areNeighbors(a, b)) return null;
+        List<CascadeStep> steps = session.applyMove(Moves.of(board, a, b));
+        shuffled = session.lastShuffle() != null;
+        return steps;
+    }
+
+    /** 上一步结算后是否发生了死局重排 */
+    public boolean lastMoveShuffled() { return shuffled; }
+
+    /** 让 bot 连续走 moves 步 */
+    public Stats play(Bot bot, int moves, Random rng) {
+        Stats s = new Stats();
+        s.games = 1;
+        long alloc0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < moves; i++) {
+            int move = bot.chooseMove(board, rng);
+            if (move == Moves.NONE) break;
+            List<CascadeStep> steps = applyMove(Moves.first(move), Moves.second(move, board.cols()));
+            if (steps == null) continue;
+            s.moves++;
+            if (!steps.isEmpty()) s.matchingMoves++;
+            s.cascades += steps.size();
+            if (shuffled) s.shuffles++;
+            for (int k = 0; k < steps.size(); k++) s.cleared += steps.get(k).removed.length;
+        }
+        s.nanos = System.nanoTime() - t0;
+        long alloc1 = allocatedBytes();
+        s.allocatedBytes = (alloc0 < 0 || alloc1 < 0) ? -1 : alloc1 - alloc0;
+        return s;
+    }
+
+    /** 当前线程累计分配的字节数；不支持时返回 -1 */
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) mx;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /* -------------------- 命令行 -------------------- */
+
+    public static void main(String[] args) {
+        int games = 100, moves = 500, rows = 8, cols = 8, types = 6;
+        long seed = 1;
+        String botName = "greedy";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--games": games = Integer.parseInt(v); break;
+                case "--moves": moves = Integer.parseInt(v); break;
+                case "--rows":  rows = Integer.parseInt(v); break;
+                case "--cols":  cols = Integer.parseInt(v); break;
+                case "--types": types = Integer.parseInt(v); break;
+                case "--seed":  seed = Long.parseLong(v); break;
+                case "--bot":   botName = v; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Bot bot = Bot.byName(botName);
+        Stats total = new Stats();
+        for (int g = 0; g < games; g++) {
+            long gameSeed = seed + g;
+            GameSimulator sim = new GameSimulator(rows, cols, types, gameSeed);
+            total.add(sim.play(bot, moves, new Random(gameSeed ^ 0x5DEECE66DL)));
+        }
+        System.out.printf("bot=%s board=%dx%d types=%d seed=%d%n", bot.name(), rows, cols, types, seed);
+        System.out.println(total);
+    }
+}
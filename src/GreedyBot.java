@@ -0,0 +1,19 @@
+import java.util.Random;
+
+/**
+ * 贪心：用 {@link MoveGenerator} 选能立即消除最多方块的一步；都不能消除时退回随机。
+ */
+public class GreedyBot implements Bot {
+    private final RandomBot fallback = new RandomBot();
+    private MoveGenerator generator;
+
+    @Override
+    public int chooseMove(Board board, Random rng) {
+        if (generator == null || generator.getBoard() != board) generator = new MoveGenerator(board);
+        int best = generator.bestMove();
+        return best != Moves.NONE ? best : fallback.chooseMove(board, rng);
+    }
+
+    @Override
+    public String name() { return "greedy"; }
+}
@@ -1,8 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class MainWindow {
     // ===== 网格参数（务必与摆放像素匹配） =====
@@ -12,10 +11,24 @@ public class MainWindow {
     private static final int CELL_H   = 30;   // 单元格高
     private static final int HGAP     = 5;    // 水平间距
     private static final int VGAP     = 5;    // 垂直间距
-    private static final int COLS     = 8;    // 列数（>= 实际列数即可）
     private static final int COLS_PER_ROW = 8; // 每行放 8 个
+    private static final int TOTAL_COUNT  = 40; // 格子总数
+
+    private static final String BACKGROUND_PATH = "/MainWindowBack.png";
+
+    // 预定义图片资源路径数组（10 张）
+    private static final String[] IMAGE_PATHS = {
+            "/Block_001.png", "/Block_002.png", "/Block_003.png", "/Block_004.png", "/Block_005.png",
+            "/Block_006.png", "/Block_007.png", "/Block_008.png", "/Block_009.png", "/Block_010.png"
+    };
 
     public static void main(String[] args) {
+        // 资源在后台并行解码，与建窗口同时进行
+        AssetPreloader preloader = new AssetPreloader().image(BACKGROUND_PATH).audioDevice()
+                .sound(SoundManager.MOVE_SOUND).sound(SoundManager.DESTROY_SOUND);
+        for (String path : IMAGE_PATHS) preloader.sprite(path, CELL_W, CELL_H);
+        preloader.start();
+
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("CubeVerse");
             frame.setSize(400, 700);
@@ -24,79 +37,142 @@ public class MainWindow {
             frame.setLayout(null);
 
             // 背景面板
-            MainWindowBack bgPanel = new MainWindowBack("/MainWindowBack.png");
+            MainWindowBack bgPanel = new MainWindowBack(BACKGROUND_PATH);
             bgPanel.setLayout(null);
             bgPanel.setBounds(0, 0, 400, 700);
             frame.setContentPane(bgPanel);
 
+            // 带种子的一局：默认 40 个格子，每行 8 个，补充方块从全部图片类型中随机
+            GameSession session = createSession(args);
+            Board board = session.getBoard();
+
+            // 单组件棋盘视图：所有方块在一次绘制中画出
+            Animator animator = new Animator();
+            BoardView view = new BoardView(board, animator, CELL_W, CELL_H, HGAP, VGAP);
+            if (board.size() <= TOTAL_COUNT) {
+                view.setLocation(ORIGIN_X, ORIGIN_Y);
+                bgPanel.add(view);
+            } else {
+                // 大棋盘：可滚动、可缩放，只绘制可见部分
+                frame.setContentPane(createLargeBoardPane(view));
+                frame.setSize(900, 700);
+                frame.setLocationRelativeTo(null);
+            }
+
             // 统一的 SwapManager（动画时长 300ms）
-            SwapManager manager = new SwapManager(300);
+            SwapManager manager = new SwapManager(session, view, 300);
+            view.setCellListener(manager);
 
-            // ✅ 调用我们封装的方法，一次生成 20 个按钮（你可以改数量）
-            createButtons(bgPanel, manager, 40);
+            // 加载中先画占位，资源就绪后重绘
+            bgPanel.setLoading(true);
+            view.setLoading(true);
+            preloader.ready().thenRun(() -> SwingUtilities.invokeLater(() -> {
+                bgPanel.setLoading(false);
+                view.setLoading(false);
+            }));
+
+            // 撤销 / 重做：Ctrl+Z、Ctrl+Y（或 Ctrl+Shift+Z）
+            installUndoKeys(frame, manager);
+
+            // 性能浮层（F3 开关）与 EDT 卡顿检测
+            PerfOverlay.install(frame);
+            EdtWatchdog.start();
 
             frame.setVisible(true);
         });
     }
 
-    /**
-     * 封装方法：在背景面板上批量创建按钮
-     * 图片不够时自动循环使用 /Block_001.png ~ /Block_010.png
-     *
-     * @param bgPanel 背景面板
-     * @param manager SwapManager 实例
-     * @param totalCount 要生成的按钮数量
-     */
-    private static void createButtons(JPanel bgPanel, SwapManager manager, int totalCount) {
-        // 预定义图片资源路径数组（10 张）
-        String[] imagePaths = {
-                "/Block_001.png", "/Block_002.png", "/Block_003.png", "/Block_004.png", "/Block_005.png",
-                "/Block_006.png", "/Block_007.png", "/Block_008.png", "/Block_009.png", "/Block_010.png"
-        };
-
-        List<ImageButton> buttons = new ArrayList<>();
-
-        for (int i = 0; i < totalCount; i++) {
-            int row = i / COLS_PER_ROW;
-            int col = i % COLS_PER_ROW;
-
-            int x = ORIGIN_X + col * (CELL_W + HGAP);
-            int y = ORIGIN_Y + row * (CELL_H + VGAP);
-
-            // 自动循环使用图片
-            String path = imagePaths[i % imagePaths.length];
-
-            ImageButton btn = createImageButton(path, x, y, manager);
-            buttons.add(btn);
-            bgPanel.add(btn);
-        }
-
-        bgPanel.revalidate();
-        bgPanel.repaint();
+    private static void installUndoKeys(JFrame frame, SwapManager manager) {
+        JRootPane root = frame.getRootPane();
+        InputMap keys = root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke("ctrl Z"), "undo");
+        keys.put(KeyStroke.getKeyStroke("ctrl Y"), "redo");
+        keys.put(KeyStroke.getKeyStroke("ctrl shift Z"), "redo");
+        root.getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                manager.undo();
+            }
+        });
+        root.getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                manager.redo();
+            }
+        });
     }
 
-    private static void removeAllActionListeners(AbstractButton b) {
-        for (ActionListener al : b.getActionListeners()) {
-            b.removeActionListener(al);
-        }
+    /** 大棋盘模式：JScrollPane 滚动，Ctrl + 滚轮以鼠标位置为中心缩放 */
+    private static JScrollPane createLargeBoardPane(BoardView view) {
+        JScrollPane scroll = new JScrollPane(view);
+        scroll.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE);
+        view.addMouseWheelListener(e -> {
+            if (!e.isControlDown()) {
+                // 普通滚轮交还给 JScrollPane 滚动
+                scroll.dispatchEvent(SwingUtilities.convertMouseEvent(view, e, scroll));
+                return;
+            }
+            float old = view.getZoom();
+            view.setZoom(old * (float) Math.pow(1.15, -e.getPreciseWheelRotation()));
+            float k = view.getZoom() / old;
+            Rectangle visible = scroll.getViewport().getViewRect();
+            int x = Math.round(e.getX() * k) - (e.getX() - visible.x);
+            int y = Math.round(e.getY() * k) - (e.getY() - visible.y);
+            scroll.getViewport().setViewPosition(new Point(Math.max(0, x), Math.max(0, y)));
+        });
+        return scroll;
     }
 
-    /** 工具方法：创建带图片、位置、监听、并绑定网格的按钮 */
-    private static ImageButton createImageButton(String path, int x, int y, SwapManager manager) {
-        ImageButton btn = new ImageButton(path, CELL_W, CELL_H);
-
-        // 绝对布局摆放
-        btn.setLocation(x, y);
-
-        // 绑定网格参数
-        btn.configureGrid(CELL_W, CELL_H, ORIGIN_X, ORIGIN_Y, COLS, HGAP, VGAP);
+    /**
+     * 按命令行创建一局：
+     * --seed N 指定种子（默认取当前时间）；--rows / --cols 棋盘大小（超过默认 40 格时进入可滚动的大棋盘模式）；
+     * --replay 文件 从回放快进到最后一步后继续；
+     * --record 文件 把这一局（含快进的步数）写成回放文件，出问题时直接附到 bug 报告里；
+     * --metrics 文件 退出时把性能统计写入该文件。
+     */
+    private static GameSession createSession(String[] args) {
+        long seed = System.nanoTime();
+        int rows = (TOTAL_COUNT + COLS_PER_ROW - 1) / COLS_PER_ROW, cols = COLS_PER_ROW;
+        String record = null, replay = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--seed":   seed = Long.parseLong(args[i + 1]); break;
+                case "--rows":   rows = Integer.parseInt(args[i + 1]); break;
+                case "--cols":   cols = Integer.parseInt(args[i + 1]); break;
+                case "--record": record = args[i + 1]; break;
+                case "--replay": replay = args[i + 1]; break;
+                case "--metrics": Metrics.dumpOnExit(Path.of(args[i + 1])); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
 
-        // 吸附格子
-        btn.snapToGrid();
+        ReplayLog log = null;
+        if (replay != null) {
+            try {
+                log = ReplayLog.load(Path.of(replay));
+            } catch (IOException e) {
+                System.err.println("⚠️ 无法读取回放文件: " + replay + " (" + e.getMessage() + ")");
+            }
+        }
+        GameSession session;
+        if (log != null) {
+            session = log.newSession();
+        } else {
+            byte[] palette = new byte[IMAGE_PATHS.length];
+            for (int i = 0; i < palette.length; i++) palette[i] = Board.typeId(IMAGE_PATHS[i]);
+            session = new GameSession(rows, cols, palette, seed);
+        }
 
-        // 绑定监听
-        removeAllActionListeners(btn);
-        btn.addActionListener(manager);
-        return btn;
+        if (record != null) {
+            try {
+                session.setRecorder(ReplayLog.Writer.create(Path.of(record), session));
+            } catch (IOException e) {
+                System.err.println("⚠️ 无法创建回放文件: " + record + " (" + e.getMessage() + ")");
+            }
+        }
+        if (log != null) {
+            for (int k = 0; k < log.moveCount(); k++) log.apply(session, k);
+        }
+        return session;
     }
 }
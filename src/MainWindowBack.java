@@ -1,18 +1,55 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
+/**
+ * 背景面板：背景图只在尺寸变化时缩放一次，缓存成与屏幕兼容的图像；
+ * 平时重绘（例如方块动画的脏区域）只把裁剪区对应的那一块拷贝上去，代价与改动面积成正比。
+ * 加载状态下（{@link #setLoading}）不在 EDT 上解码，原图还没由 {@link AssetPreloader} 解码好时先画纯色。
+ */
 public class MainWindowBack extends JPanel {
 
-    private Image backgroundImage;
+    private static final Color LOADING_FILL = new Color(32, 36, 48);
+
+    private final String imagePath;
+    private BufferedImage backgroundImage;       // 原图（SpriteAtlas 缓存）
+    private BufferedImage scaled;                // 按当前面板尺寸缩放好的背景
+    private boolean loading;
 
     public MainWindowBack(String imagePath) {
-        backgroundImage = new ImageIcon(getClass().getResource(imagePath)).getImage(); //从resources里读取背景图
+        this.imagePath = imagePath; //从resources里读取背景图（首次绘制时）
+    }
+
+    /** 加载中：只使用已解码的原图；结束加载时重绘 */
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+        if (!loading) repaint();
     }
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        // 绘制背景图片，自动缩放到面板大小
-        g.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
+        int w = getWidth(), h = getHeight();
+        if (backgroundImage == null) {
+            backgroundImage = loading ? SpriteAtlas.peekSource(imagePath) : SpriteAtlas.source(imagePath);
+        }
+        if (backgroundImage == null && loading) {
+            g.setColor(LOADING_FILL);
+            g.fillRect(0, 0, w, h);
+            return;
+        }
+        if (backgroundImage == null || w <= 0 || h <= 0) {
+            super.paintComponent(g);
+            return;
+        }
+        // 尺寸变化时才重新缩放
+        if (scaled == null || scaled.getWidth() != w || scaled.getHeight() != h) {
+            scaled = SpriteAtlas.scale(backgroundImage, w, h);
+        }
+        // 只拷贝裁剪区
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, w, h);
+        int x1 = Math.max(0, clip.x), y1 = Math.max(0, clip.y);
+        int x2 = Math.min(w, clip.x + clip.width), y2 = Math.min(h, clip.y + clip.height);
+        if (x2 > x1 && y2 > y1) g.drawImage(scaled, x1, y1, x2, y2, x1, y1, x2, y2, null);
     }
 }
@@ -1,81 +1,95 @@
-import javax.swing.JPanel;
-import java.awt.Component;
-import java.awt.Point;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Queue;
-import java.util.Set;
-import java.util.List;
-
 /**
  * 基于 4 邻接（上下左右）的三消判定：
  * 任意同类型的连通块大小 >= 3 即消除（支持直线、L 形、T 形、十字等）。
+ * 判定只读 {@link Board} 模型，不接触组件树或像素坐标，也不分配对象。
  */
 public class Match3Manager {
 
-    /** 扫描 parent 中全部可见的 ImageButton，找出同类型 4 邻接连通分量大小>=3 的块并移除。 */
-    public static void removeMatches(JPanel parent) {
-        // 1) 收集所有按钮并按 (row, col) 建表
-        Map<Point, ImageButton> grid = new HashMap<>();
-        for (Component c : parent.getComponents()) {
-            if (c instanceof ImageButton && c.isVisible()) {
-                ImageButton b = (ImageButton) c;
-                grid.put(new Point(b.currentRow(), b.currentCol()), b);
+    /** 连通块达到该大小即消除 */
+    public static final int MIN_MATCH = 3;
+
+    /**
+     * 全盘扫描：找出所有同类型 4 邻接连通分量大小>=3 的格子，写入 out。
+     *
+     * @return 被标记消除的格子数量
+     */
+    public static int findMatches(Board board, MatchSet out) {
+        if (out.capacity() < board.size()) {
+            throw new IllegalArgumentException("MatchSet too small for board.");
+        }
+        out.clear();
+        int stamp = out.nextStamp();
+        int n = board.size();
+        for (int start = 0; start < n; start++) {
+            if (board.isEmpty(start) || !out.visit(start, stamp)) continue;
+            int compSize = collectComponent(board, start, out, stamp);
+            if (compSize >= MIN_MATCH) {
+                for (int k = 0; k < compSize; k++) out.add(out.queue[k]);
             }
         }
-        if (grid.isEmpty()) return;
-
-        // 2) 基于 4 邻接的连通分量搜索
-        Set<Point> visited = new HashSet<>();
-        Set<Point> toRemove = new HashSet<>();
-        int[][] DIRS = { {1,0}, {-1,0}, {0,1}, {0,-1} };
-
-        for (Map.Entry<Point, ImageButton> entry : grid.entrySet()) {
-            Point start = entry.getKey();
-            if (visited.contains(start)) continue;
-
-            String type = entry.getValue().getType();
-            Queue<Point> q = new ArrayDeque<>();
-            List<Point> comp = new ArrayList<>();
-            visited.add(start);
-            q.add(start);
-
-            while (!q.isEmpty()) {
-                Point p = q.poll();
-                comp.add(p);
+        return out.size();
+    }
 
-                for (int[] d : DIRS) {
-                    Point np = new Point(p.x + d[0], p.y + d[1]);
-                    if (visited.contains(np)) continue;
-                    ImageButton nb = grid.get(np);
-                    if (nb != null && Objects.equals(nb.getType(), type)) {
-                        visited.add(np);
-                        q.add(np);
-                    }
-                }
-            }
+    /**
+     * 与 {@link #findMatches} 结果相同，但棋盘放得进 64 位时改用 {@link BitBoard}（移位 + 洪泛），
+     * 否则退回数组实现。
+     */
+    public static int findMatchesFast(Board board, MatchSet out) {
+        if (!BitBoard.fits(board)) return findMatches(board, out);
+        BitBoard bits = out.bits;
+        if (bits == null || bits.rows() != board.rows() || bits.cols() != board.cols()) {
+            bits = out.bits = new BitBoard(board.rows(), board.cols());
+        }
+        bits.load(board);
+        return BitBoard.toMatchSet(bits.matchMask(), out);
+    }
 
-            if (comp.size() >= 3) {
-                toRemove.addAll(comp);
+    /**
+     * 增量判定：只搜索与 changed[0..count) 中格子相连的同类型连通块，写入 out。
+     * 前提：改动之前棋盘是稳定的（不存在可消除的块），此时结果与 {@link #findMatches} 完全一致，
+     * 而代价只与受影响区域大小有关，与棋盘大小无关。
+     *
+     * @param changed 本次改动过的格子（交换的两格、补充的新格等），可含重复
+     * @return 被标记消除的格子数量
+     */
+    public static int findMatchesAt(Board board, int[] changed, int count, MatchSet out) {
+        if (out.capacity() < board.size()) {
+            throw new IllegalArgumentException("MatchSet too small for board.");
+        }
+        out.clear();
+        int stamp = out.nextStamp();
+        for (int i = 0; i < count; i++) {
+            int start = changed[i];
+            if (board.isEmpty(start) || !out.visit(start, stamp)) continue;
+            int compSize = collectComponent(board, start, out, stamp);
+            if (compSize >= MIN_MATCH) {
+                for (int k = 0; k < compSize; k++) out.add(out.queue[k]);
             }
         }
+        return out.size();
+    }
 
-        // 3) 执行移除并刷新（有匹配才播放销毁音效）
-        if (!toRemove.isEmpty()) {
-            SoundManager.playDestroy(); // ✅ 播放销毁音效
-            for (Point p : toRemove) {
-                ImageButton b = grid.get(p);
-                if (b != null) parent.remove(b);
-            }
-            parent.revalidate();
-            parent.repaint();
+    /**
+     * 从 start 出发 BFS 收集同类型连通块，结果放在 out.queue[0..返回值)。
+     * start 需已由调用方标记为已访问。
+     */
+    static int collectComponent(Board board, int start, MatchSet out, int stamp) {
+        byte type = board.get(start);
+        int cols = board.cols();
+        int n = board.size();
+        int[] q = out.queue;
+        int head = 0, tail = 0;
+        q[tail++] = start;
 
-            // 如需“连消”，可在这里再次调用：
-            // removeMatches(parent);
+        while (head < tail) {
+            int p = q[head++];
+            int col = p % cols;
+            // 上、下、左、右
+            if (p >= cols && board.get(p - cols) == type && out.visit(p - cols, stamp)) q[tail++] = p - cols;
+            if (p + cols < n && board.get(p + cols) == type && out.visit(p + cols, stamp)) q[tail++] = p + cols;
+            if (col > 0 && board.get(p - 1) == type && out.visit(p - 1, stamp)) q[tail++] = p - 1;
+            if (col < cols - 1 && board.get(p + 1) == type && out.visit(p + 1, stamp)) q[tail++] = p + 1;
         }
+        return tail;
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * 三消判定的结果集合 + 搜索用的临时缓冲区，可反复复用。
+ * 容量固定为棋盘格子数；判定过程中不再分配任何对象。
+ */
+public class MatchSet {
+    private final int[] cells;      // 被标记消除的格子索引（前 size 个有效）
+    private final boolean[] marked; // 快速查询某格是否在集合中
+    private int size;
+
+    // ===== BFS 临时缓冲区（供 Match3Manager 使用） =====
+    final int[] queue;
+    private final int[] visited;    // 访问戳：visited[i] == stamp 表示本轮已访问
+    private int stamp;
+
+    // ===== 位棋盘（<= 64 格时由 Match3Manager.findMatchesFast 按需创建） =====
+    BitBoard bits;
+
+    public MatchSet(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity invalid.");
+        this.cells = new int[capacity];
+        this.marked = new boolean[capacity];
+        this.queue = new int[capacity];
+        this.visited = new int[capacity];
+    }
+
+    public int capacity() { return cells.length; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    /** 第 k 个被消除的格子索引 */
+    public int get(int k) { return cells[k]; }
+
+    public boolean contains(int cell) { return marked[cell]; }
+
+    /** 清空集合（只复位已标记的格子） */
+    public void clear() {
+        for (int k = 0; k < size; k++) marked[cells[k]] = false;
+        size = 0;
+    }
+
+    void add(int cell) {
+        if (marked[cell]) return;
+        marked[cell] = true;
+        cells[size++] = cell;
+    }
+
+    /* -------------------- 访问戳 -------------------- */
+
+    /** 开启新一轮搜索，返回本轮的访问戳 */
+    int nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    boolean visit(int cell, int s) {
+        if (visited[cell] == s) return false;
+        visited[cell] = s;
+        return true;
+    }
+}
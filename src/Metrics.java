@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 运行时计时统计：几个固定的耗时直方图（纳秒），可在任意线程记录、不加锁、不分配。
+ * 同样的数据也以 JFR 事件发出（见 {@link PerfEvents}），屏幕上由 {@link PerfOverlay} 显示，
+ * 退出时可用 {@link #dumpOnExit} 写到文件。
+ */
+public final class Metrics {
+
+    /** 每步引擎结算（交换 + 连消 + 死局重排） */
+    public static final Histogram MOVE = new Histogram("move");
+    /** 动画帧间隔（Animator 相邻两次 tick） */
+    public static final Histogram FRAME = new Histogram("frame");
+    /** 一次 tick 内推进补间与回调的耗时 */
+    public static final Histogram TICK = new Histogram("tick");
+    /** 棋盘绘制耗时 */
+    public static final Histogram PAINT = new Histogram("paint");
+    /** 音效从调用 play 到进入混音器（或 Clip 启动）的延迟 */
+    public static final Histogram SOUND = new Histogram("sound");
+    /** EDT 响应延迟（invokeLater 投递到执行） */
+    public static final Histogram EDT_LAG = new Histogram("edt-lag");
+
+    private static final Histogram[] ALL = {MOVE, FRAME, TICK, PAINT, SOUND, EDT_LAG};
+
+    private Metrics() {}
+
+    /** 全部直方图写成文本（每行一个：次数、平均、分位数、最大值，单位毫秒） */
+    public static void dump(PrintWriter out) {
+        for (Histogram h : ALL) out.println(h.snapshot());
+    }
+
+    public static void dump(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            dump(out);
+        }
+    }
+
+    /** 进程退出时把统计写到 file */
+    public static void dumpOnExit(Path file) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                System.err.println("⚠️ 无法写入性能统计: " + file + " (" + e.getMessage() + ")");
+            }
+        }, "MetricsDump"));
+    }
+
+    /**
+     * 对数分桶直方图：每个 2 的幂区间再分 {@link #SUB} 个子桶，相对误差 < 1/SUB。
+     */
+    public static final class Histogram {
+        static final int SUB_BITS = 2;
+        static final int SUB = 1 << SUB_BITS;
+        static final int BUCKETS = 64 * SUB;
+
+        private final String name;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name) {
+            this.name = name;
+        }
+
+        public String name() { return name; }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            counts.incrementAndGet(bucket(nanos));
+            count.incrementAndGet();
+            sum.addAndGet(nanos);
+            long m;
+            while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) { }
+        }
+
+        public long count() { return count.get(); }
+
+        public Snapshot snapshot() {
+            long[] c = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) c[i] = counts.get(i);
+            return new Snapshot(name, c, count.get(), sum.get(), max.get());
+        }
+
+        static int bucket(long v) {
+            if (v < SUB) return (int) v;
+            int hi = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (hi - SUB_BITS)) & (SUB - 1);
+            return (hi - SUB_BITS + 1) * SUB + sub;
+        }
+
+        /** 桶的上界（含） */
+        static long upperBound(int b) {
+            if (b < SUB) return b;
+            int hi = b / SUB + SUB_BITS - 1, sub = b % SUB;
+            long base = (1L << hi) + ((long) sub << (hi - SUB_BITS));
+            return base + (1L << (hi - SUB_BITS)) - 1;
+        }
+    }
+
+    /** 直方图某一时刻的副本；两个快照相减得到这段时间窗口内的分布 */
+    public static final class Snapshot {
+        public final String name;
+        public final long count, sum, max;
+        private final long[] counts;
+
+        Snapshot(String name, long[] counts, long count, long sum, long max) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /** 本快照减去更早的快照（max 取本快照的值） */
+        public Snapshot since(Snapshot earlier) {
+            long[] c = counts.clone();
+            for (int i = 0; i < c.length; i++) c[i] -= earlier.counts[i];
+            return new Snapshot(name, c, count - earlier.count, sum - earlier.sum, max);
+        }
+
+        public double meanMillis() { return count == 0 ? 0 : sum / (double) count / 1e6; }
+
+        /** 分位数（p ∈ [0,1]，毫秒，取所在桶的上界） */
+        public double percentileMillis(double p) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int b = 0; b < counts.length; b++) {
+                seen += counts[b];
+                if (seen >= rank && counts[b] > 0) return Math.min(Histogram.upperBound(b), max) / 1e6;
+            }
+            return max / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s n=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                    name, count, meanMillis(), percentileMillis(0.5), percentileMillis(0.95),
+                    percentileMillis(0.99), max / 1e6);
+        }
+    }
+}
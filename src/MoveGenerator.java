@@ -0,0 +1,119 @@
+/**
+ * 可消除交换生成器：列出所有能立即产生消除的相邻交换及其消除数量。
+ * 每个候选只在模型上试换一次并做增量判定（只看两格所在的连通块），不分配对象，
+ * 8x8 棋盘全量生成在微秒级，适合每次棋盘变化后调用（提示、死局检测、AI）。
+ * 格子数 <= 64 时默认改用 {@link BitBoard} 试换（移位 + popcount），结果与数组实现一致。
+ * 前提：棋盘当前是稳定的（没有可消除的块）。
+ */
+public class MoveGenerator {
+    private final Board board;
+    private final MatchSet matches;
+    private final int[] changed = new int[2];
+    private final BitBoard bits;    // null 表示使用数组实现
+
+    // ===== 最近一次 generate 的结果 =====
+    private final int[] moves;
+    private final int[] sizes;
+    private int count;
+
+    public MoveGenerator(Board board) {
+        this(board, true);
+    }
+
+    /** @param allowBitboard 为 false 时始终使用数组实现（用于对比与回归） */
+    public MoveGenerator(Board board, boolean allowBitboard) {
+        this.board = board;
+        this.bits = (allowBitboard && BitBoard.fits(board)) ? new BitBoard(board.rows(), board.cols()) : null;
+        this.matches = new MatchSet(board.size());
+        this.moves = new int[Moves.space(board)];
+        this.sizes = new int[Moves.space(board)];
+    }
+
+    public Board getBoard() { return board; }
+
+    /** 是否在用位棋盘 */
+    public boolean usesBitboard() { return bits != null; }
+
+    /**
+     * 生成全部可消除的交换。
+     *
+     * @return 数量；之后用 {@link #move(int)} / {@link #matchSize(int)} 读取
+     */
+    public int generate() {
+        sync();
+        count = 0;
+        int space = Moves.space(board);
+        for (int move = 0; move < space; move++) {
+            int size = evaluateSynced(move);
+            if (size > 0) {
+                moves[count] = move;
+                sizes[count] = size;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int count() { return count; }
+    public int move(int k) { return moves[k]; }
+    public int matchSize(int k) { return sizes[k]; }
+
+    /** 消除数量最多的一步（并列取编码最小的）；没有则返回 {@link Moves#NONE} */
+    public int bestMove() {
+        sync();
+        int best = Moves.NONE, bestSize = 0;
+        int space = Moves.space(board);
+        for (int move = 0; move < space; move++) {
+            int size = evaluateSynced(move);
+            if (size > bestSize) {
+                bestSize = size;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /** 是否存在至少一步可消除的交换（找到即返回） */
+    public boolean hasAnyMove() {
+        sync();
+        int space = Moves.space(board);
+        for (int move = 0; move < space; move++) {
+            if (evaluateSynced(move) > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 试换一步并返回会被消除的方块数（0 表示不会消除；越界或无意义的交换也返回 0）。
+     * 棋盘在返回前恢复原状。
+     */
+    public int evaluate(int move) {
+        sync();
+        return evaluateSynced(move);
+    }
+
+    /** 位棋盘与数组棋盘同步（数组实现时无操作） */
+    private void sync() {
+        if (bits != null) bits.load(board);
+    }
+
+    private int evaluateSynced(int move) {
+        if (!Moves.isValid(board, move)) return 0;
+        int a = Moves.first(move), b = Moves.second(move, board.cols());
+        if (bits != null) return bits.evaluateSwap(a, b);
+        byte ta = board.get(a), tb = board.get(b);
+        if (ta == tb || ta == Board.EMPTY || tb == Board.EMPTY) return 0;
+        board.swap(a, b);
+        changed[0] = a;
+        changed[1] = b;
+        int size = Match3Manager.findMatchesAt(board, changed, 2, matches);
+        board.swap(a, b);
+        return size;
+    }
+
+    /** 两个任意格子的交换会消除多少（不相邻返回 0） */
+    public int evaluate(int a, int b) {
+        int move = Moves.of(board, a, b);
+        return move == Moves.NONE ? 0 : evaluate(move);
+    }
+}
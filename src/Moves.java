@@ -0,0 +1,47 @@
+/**
+ * 交换操作的紧凑编码：一个 int 表示“某格与其右侧 / 下方相邻格交换”。
+ * move = cell * 2 + dir，dir = 0 表示向右，1 表示向下；-1 表示无操作。
+ */
+public final class Moves {
+
+    public static final int NONE = -1;
+
+    private Moves() {}
+
+    public static int right(int cell) { return cell << 1; }
+    public static int down(int cell) { return (cell << 1) | 1; }
+
+    /** 由任意两个相邻格得到编码；不相邻返回 NONE */
+    public static int of(Board board, int a, int b) {
+        if (!board.areNeighbors(a, b)) return NONE;
+        int lo = Math.min(a, b), hi = Math.max(a, b);
+        return (hi - lo == 1) ? right(lo) : down(lo);
+    }
+
+    /** 左 / 上的那一格 */
+    public static int first(int move) { return move >>> 1; }
+
+    /** 右 / 下的那一格 */
+    public static int second(int move, int cols) {
+        int cell = move >>> 1;
+        return (move & 1) == 0 ? cell + 1 : cell + cols;
+    }
+
+    /** 棋盘上可能的交换总数（编码空间上界为 size * 2） */
+    public static int space(Board board) { return board.size() * 2; }
+
+    /** 编码在该棋盘上是否合法（不越界） */
+    public static boolean isValid(Board board, int move) {
+        if (move < 0 || move >= space(board)) return false;
+        int cell = move >>> 1;
+        return (move & 1) == 0
+                ? board.colOf(cell) < board.cols() - 1
+                : board.rowOf(cell) < board.rows() - 1;
+    }
+
+    public static String toString(Board board, int move) {
+        if (move == NONE) return "none";
+        int a = first(move), b = second(move, board.cols());
+        return "(" + board.rowOf(a) + "," + board.colOf(a) + ")<->(" + board.rowOf(b) + "," + board.colOf(b) + ")";
+    }
+}
@@ -0,0 +1,144 @@
+import java.awt.*;
+
+/**
+ * 消除粒子：容量固定，所有状态按“结构数组”存放在预先分配的基本类型数组里（位置、速度、寿命、类型），
+ * 更新与绘制都只遍历这几块连续内存，不分配对象；死掉的粒子用最后一个粒子填位，活粒子始终紧凑地排在前面。
+ * 满了以后新粒子直接丢弃，大范围连消时开销有上界。
+ * 只在 EDT 上使用。
+ */
+public final class ParticleSystem {
+
+    // ===== 结构数组 =====
+    private final float[] x, y;       // 位置（组件像素）
+    private final float[] vx, vy;     // 速度（像素 / 秒）
+    private final float[] life;       // 剩余寿命（秒）
+    private final float[] maxLife;    // 初始寿命（秒）
+    private final byte[] type;        // 方块类型（决定颜色）
+    private int count;
+
+    private float gravity;            // 像素 / 秒²
+    private float size;               // 初始边长（像素），随寿命缩小
+    private long lastNs;              // 上次更新的时间；没有粒子时为 0
+    private int seed = 0x9E3779B9;    // xorshift 状态
+
+    public ParticleSystem(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity invalid.");
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new float[capacity];
+        maxLife = new float[capacity];
+        type = new byte[capacity];
+    }
+
+    public int capacity() { return x.length; }
+
+    /** 活着的粒子数 */
+    public int size() { return count; }
+
+    /** 设置重力与粒子初始大小（随格子尺寸缩放） */
+    public void setScale(float gravity, float size) {
+        this.gravity = gravity;
+        this.size = size;
+    }
+
+    /** 清空（例如缩放改变后坐标失效） */
+    public void clear() {
+        count = 0;
+        lastNs = 0;
+    }
+
+    /**
+     * 从 (cx, cy) 向四周迸发 n 个粒子，偏向上方。
+     *
+     * @param speed   最大初速度（像素 / 秒）
+     * @param lifeSec 最长寿命（秒），每个粒子在 [0.6, 1] 倍之间随机
+     * @return 实际发出的数量（容量满时少于 n）
+     */
+    public int burst(float cx, float cy, byte tileType, int n, float speed, float lifeSec) {
+        if (count == 0) lastNs = System.nanoTime();
+        int k = Math.min(n, x.length - count);
+        for (int i = 0; i < k; i++) {
+            int p = count++;
+            float angle = nextFloat() * (float) (2 * Math.PI);
+            float v = speed * (0.35f + 0.65f * nextFloat());
+            x[p] = cx;
+            y[p] = cy;
+            vx[p] = (float) Math.cos(angle) * v;
+            vy[p] = (float) Math.sin(angle) * v - speed * 0.5f;
+            maxLife[p] = life[p] = lifeSec * (0.6f + 0.4f * nextFloat());
+            type[p] = tileType;
+        }
+        return k;
+    }
+
+    /**
+     * 推进到 nowNs：按真实时间积分，时间不前进的重复调用什么也不做。
+     * 每帧只应由一处调用（用动画时钟的帧时间戳）；两帧间隔超过 50ms 时只推进 50ms，粒子寿命相应延长。
+     *
+     * @return 是否还有活着的粒子
+     */
+    public boolean update(long nowNs) {
+        if (count == 0) return false;
+        float dt = Math.min(0.05f, (nowNs - lastNs) / 1e9f); // 卡顿时不一步跳太远
+        if (dt <= 0f) return true;
+        lastNs = nowNs;
+        float g = gravity * dt;
+        for (int i = 0; i < count; i++) {
+            float l = life[i] - dt;
+            if (l <= 0f) {
+                // 用最后一个粒子填位，再处理一次当前下标
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                life[i] = life[last];
+                maxLife[i] = maxLife[last];
+                type[i] = type[last];
+                i--;
+                continue;
+            }
+            life[i] = l;
+            vy[i] += g;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+        }
+        if (count == 0) lastNs = 0;
+        return count > 0;
+    }
+
+    /**
+     * 一遍画完所有粒子：实心方块，边长随剩余寿命缩小；只在颜色变化时切换颜色，跳过裁剪区外的粒子。
+     *
+     * @param colors   按类型取颜色
+     * @param fallback colors 中为 null 的类型（例如贴图还在加载、平均色未知）改用的颜色
+     */
+    public void paint(Graphics2D g, Rectangle clip, Color[] colors, Color fallback) {
+        byte current = Board.EMPTY;
+        int cx0 = clip.x, cy0 = clip.y, cx1 = clip.x + clip.width, cy1 = clip.y + clip.height;
+        for (int i = 0; i < count; i++) {
+            float px = x[i], py = y[i];
+            if (px < cx0 - size || px > cx1 + size || py < cy0 - size || py > cy1 + size) continue;
+            byte t = type[i];
+            if (t != current) {
+                Color c = colors[t];
+                g.setColor(c != null ? c : fallback);
+                current = t;
+            }
+            int s = Math.max(1, Math.round(size * life[i] / maxLife[i]));
+            g.fillRect(Math.round(px) - s / 2, Math.round(py) - s / 2, s, s);
+        }
+    }
+
+    /** [0, 1) 的随机数（xorshift32，不分配） */
+    private float nextFloat() {
+        int s = seed;
+        s ^= s << 13;
+        s ^= s >>> 17;
+        s ^= s << 5;
+        seed = s;
+        return (s >>> 8) / (float) (1 << 24);
+    }
+}
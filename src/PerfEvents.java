@@ -0,0 +1,82 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 自定义 JFR 事件，与 {@link Metrics} 的直方图一一对应。用 JDK Flight Recorder 记录即可看到：
+ * <pre>
+ * java -XX:StartFlightRecording=filename=cubeverse.jfr MainWindow
+ * </pre>
+ * 未开启录制时 begin/commit 几乎没有开销。每帧都会发的事件（绘制、动画帧）先查 {@link EventType#isEnabled()}，
+ * 未开启时连事件对象都不创建，帧内不分配。
+ */
+final class PerfEvents {
+
+    private PerfEvents() {}
+
+    /** 每帧事件的类型句柄（查是否开启用） */
+    static final EventType ANIMATION_FRAME = EventType.getEventType(AnimationFrame.class);
+    static final EventType BOARD_PAINT = EventType.getEventType(BoardPaint.class);
+
+    @Name("cubeverse.MoveResolved")
+    @Label("Move Resolved")
+    @Category("CubeVerse")
+    @StackTrace(false)
+    static final class MoveResolved extends Event {
+        @Label("Move")
+        int move;
+        @Label("Cascade Steps")
+        int steps;
+        @Label("Cleared")
+        int cleared;
+        @Label("Shuffled")
+        boolean shuffled;
+    }
+
+    @Name("cubeverse.AnimationFrame")
+    @Label("Animation Frame")
+    @Category("CubeVerse")
+    @StackTrace(false)
+    static final class AnimationFrame extends Event {
+        @Label("Active Tweens")
+        int tweens;
+        @Label("Frame Interval (ns)")
+        long intervalNanos;
+    }
+
+    @Name("cubeverse.BoardPaint")
+    @Label("Board Paint")
+    @Category("CubeVerse")
+    @StackTrace(false)
+    static final class BoardPaint extends Event {
+        @Label("Cells Visited")
+        int cells;
+    }
+
+    @Name("cubeverse.SoundStarted")
+    @Label("Sound Started")
+    @Category("CubeVerse")
+    @StackTrace(false)
+    static final class SoundStarted extends Event {
+        @Label("Resource")
+        String resource;
+        @Label("Cache Hit")
+        boolean cached;
+        @Label("Latency (ns)")
+        long latencyNanos;
+    }
+
+    @Name("cubeverse.EdtStall")
+    @Label("EDT Stall")
+    @Category("CubeVerse")
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class EdtStall extends Event {
+        @Label("Lag (ns)")
+        long lagNanos;
+    }
+}
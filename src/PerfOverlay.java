@@ -0,0 +1,91 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 性能浮层：作为窗口的 glass pane 叠在最上层，每 {@link #REFRESH_MS} 毫秒刷新一次，
+ * 显示 FPS、帧间隔分位数（最近一个刷新窗口）、绘制耗时、每步引擎耗时、音效启动延迟与 EDT 卡顿。
+ * 本身不处理鼠标事件，点击照常落到棋盘上。用 {@link #install} 安装，F3 开关。
+ */
+public class PerfOverlay extends JComponent {
+
+    /** 刷新间隔（毫秒） */
+    public static final int REFRESH_MS = 500;
+
+    private static final Color PANEL = new Color(0, 0, 0, 170);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+
+    private final Timer timer;
+    private Metrics.Snapshot lastFrame = Metrics.FRAME.snapshot();
+    private Metrics.Snapshot lastPaint = Metrics.PAINT.snapshot();
+    private long lastNs = System.nanoTime();
+    private String[] lines = new String[0];
+
+    public PerfOverlay() {
+        setOpaque(false);
+        timer = new Timer(REFRESH_MS, e -> refresh());
+    }
+
+    /** 安装为 frame 的 glass pane，并绑定 F3 开关（初始隐藏） */
+    public static PerfOverlay install(JFrame frame) {
+        PerfOverlay overlay = new PerfOverlay();
+        frame.setGlassPane(overlay);
+        JRootPane root = frame.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F3"), "togglePerfOverlay");
+        root.getActionMap().put("togglePerfOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                overlay.setVisible(!overlay.isVisible());
+            }
+        });
+        return overlay;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+        if (visible) {
+            refresh();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        Metrics.Snapshot frame = Metrics.FRAME.snapshot(), paint = Metrics.PAINT.snapshot();
+        Metrics.Snapshot frameWin = frame.since(lastFrame), paintWin = paint.since(lastPaint);
+        Metrics.Snapshot move = Metrics.MOVE.snapshot(), sound = Metrics.SOUND.snapshot();
+        Metrics.Snapshot edt = Metrics.EDT_LAG.snapshot();
+        double seconds = (now - lastNs) / 1e9;
+        lastFrame = frame;
+        lastPaint = paint;
+        lastNs = now;
+
+        lines = new String[] {
+                String.format("FPS   %5.1f", seconds > 0 ? frameWin.count / seconds : 0),
+                String.format("frame p50 %5.1f p95 %5.1f p99 %5.1f ms",
+                        frameWin.percentileMillis(0.5), frameWin.percentileMillis(0.95), frameWin.percentileMillis(0.99)),
+                String.format("paint p50 %5.2f p95 %5.2f ms", paintWin.percentileMillis(0.5), paintWin.percentileMillis(0.95)),
+                String.format("move  avg %5.2f p95 %5.2f max %5.2f ms (n=%d)",
+                        move.meanMillis(), move.percentileMillis(0.95), move.max / 1e6, move.count),
+                String.format("sound p95 %5.2f ms", sound.percentileMillis(0.95)),
+                String.format("edt   p99 %5.1f ms stalls %d", edt.percentileMillis(0.99), EdtWatchdog.stalls()),
+        };
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setFont(FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int w = 0;
+        for (String line : lines) w = Math.max(w, fm.stringWidth(line));
+        int lh = fm.getHeight();
+        g2.setColor(PANEL);
+        g2.fillRoundRect(6, 6, w + 12, lines.length * lh + 8, 8, 8);
+        g2.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) g2.drawString(lines[i], 12, 10 + fm.getAscent() + i * lh);
+    }
+}
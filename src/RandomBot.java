@@ -0,0 +1,17 @@
+import java.util.Random;
+
+/** 随机选择一对相邻格交换（不管能否消除） */
+public class RandomBot implements Bot {
+
+    @Override
+    public int chooseMove(Board board, Random rng) {
+        if (board.size() < 2) return Moves.NONE;
+        while (true) {
+            int move = rng.nextInt(Moves.space(board));
+            if (Moves.isValid(board, move)) return move;
+        }
+    }
+
+    @Override
+    public String name() { return "random"; }
+}
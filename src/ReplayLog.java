@@ -0,0 +1,217 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 回放文件：只追加的二进制格式，一局游戏 = 文件头 + 每步一个 varint。
+ * <pre>
+ * "CVR" 版本(1 字节)
+ * varint 行数, varint 列数
+ * varint 类型数, 每个类型的 key（DataOutput.writeUTF）
+ * long 种子（8 字节，大端）
+ * varint 操作，直到文件结束：0 = 撤销，1 = 重做，其余为交换（{@link Moves} 编码）+ 2
+ * </pre>
+ * 8x8 棋盘每步基本 1 字节，1000x1000 也只要 3 字节。每步写完即 flush，程序崩溃时文件仍可回放到最后一步。
+ * 回放在 {@link GameSession} 上直接结算，不经过动画，可以全速快进到任意一步。
+ */
+public final class ReplayLog {
+
+    private static final byte[] MAGIC = {'C', 'V', 'R'};
+    private static final int VERSION = 4;
+
+    /** 内存中的撤销 / 重做操作（文件中分别写作 0 / 1，交换写作编码 + 2） */
+    public static final int UNDO = -2, REDO = -1;
+
+    private final int rows, cols;
+    private final String[] typeKeys;
+    private final long seed;
+    private int[] moves;
+    private int count;
+
+    private ReplayLog(int rows, int cols, String[] typeKeys, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.typeKeys = typeKeys;
+        this.seed = seed;
+        this.moves = new int[64];
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public long seed() { return seed; }
+    /** 操作数（交换、撤销与重做） */
+    public int moveCount() { return count; }
+
+    /** 第 k 个操作：交换编码，或 {@link #UNDO} / {@link #REDO} */
+    public int move(int k) { return moves[k]; }
+
+    /** 在 session 上执行第 k 个操作 */
+    public void apply(GameSession session, int k) {
+        int op = moves[k];
+        if (op == UNDO) session.undo();
+        else if (op == REDO) session.redo();
+        else session.applyMove(op);
+    }
+
+    /** 按文件头新建一局（尚未走任何一步） */
+    public GameSession newSession() {
+        byte[] palette = new byte[typeKeys.length];
+        for (int i = 0; i < palette.length; i++) palette[i] = Board.typeId(typeKeys[i]);
+        return new GameSession(rows, cols, palette, seed);
+    }
+
+    /** 无动画快进：返回走完前 moveIndex 步之后的一局 */
+    public GameSession playTo(int moveIndex) {
+        if (moveIndex < 0 || moveIndex > count) throw new IllegalArgumentException("moveIndex out of range: " + moveIndex);
+        GameSession session = newSession();
+        for (int k = 0; k < moveIndex; k++) apply(session, k);
+        return session;
+    }
+
+    /* -------------------- 读取 -------------------- */
+
+    public static ReplayLog load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    /** 读到流结束；末尾不完整的一步（写到一半崩溃）被忽略 */
+    public static ReplayLog read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a replay file.");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported replay version: " + version);
+
+        int rows = readVarint(in), cols = readVarint(in);
+        String[] keys = new String[readVarint(in)];
+        for (int i = 0; i < keys.length; i++) keys[i] = in.readUTF();
+        ReplayLog log = new ReplayLog(rows, cols, keys, in.readLong());
+
+        int space = rows * cols * 2;
+        while (true) {
+            int move;
+            try {
+                move = readVarint(in) - 2;
+            } catch (EOFException e) {
+                break;
+            }
+            if (move < UNDO || move >= space) throw new IOException("Corrupt move at index " + log.count + ": " + move);
+            if (log.count == log.moves.length) log.moves = Arrays.copyOf(log.moves, log.count * 2);
+            log.moves[log.count++] = move;
+        }
+        return log;
+    }
+
+    /* -------------------- 写入 -------------------- */
+
+    /** 记录器：创建时写文件头，之后由 {@link GameSession} 每步调用 {@link #append} */
+    public static final class Writer implements Closeable {
+        private final OutputStream out;
+        private final byte[] buf = new byte[5];
+
+        private Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        /** 新建（覆盖）回放文件并写入该局的文件头；应在第一步之前调用 */
+        public static Writer create(Path file, GameSession session) throws IOException {
+            if (session.moveCount() != 0) throw new IllegalArgumentException("Session already has moves.");
+            Writer w = new Writer(new BufferedOutputStream(Files.newOutputStream(file)));
+            w.writeHeader(session);
+            return w;
+        }
+
+        /** 写到任意流（用于测量 / 内存中的回放） */
+        public static Writer wrap(OutputStream out, GameSession session) throws IOException {
+            Writer w = new Writer(out);
+            w.writeHeader(session);
+            return w;
+        }
+
+        private void writeHeader(GameSession session) throws IOException {
+            DataOutputStream data = new DataOutputStream(out);
+            data.write(MAGIC);
+            data.writeByte(VERSION);
+            Board board = session.getBoard();
+            writeVarint(board.rows());
+            writeVarint(board.cols());
+            byte[] palette = session.palette();
+            writeVarint(palette.length);
+            for (byte t : palette) data.writeUTF(Board.typeKey(t));
+            data.writeLong(session.seed());
+            out.flush();
+        }
+
+        /** 追加一个操作：交换编码，或 {@link #UNDO} / {@link #REDO} */
+        public void append(int move) throws IOException {
+            writeVarint(move + 2);
+            out.flush();
+        }
+
+        private void writeVarint(int v) throws IOException {
+            int n = 0;
+            while ((v & ~0x7F) != 0) {
+                buf[n++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[n++] = (byte) v;
+            out.write(buf, 0, n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** 无符号 LEB128；流在第一个字节前结束时抛 EOFException */
+    private static int readVarint(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) throw new EOFException();
+                throw new EOFException("Truncated varint.");
+            }
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Varint too long.");
+    }
+
+    /* -------------------- 命令行 -------------------- */
+
+    /**
+     * 快进回放并打印棋盘：
+     * <pre>
+     * java ReplayLog game.cvr [--to N]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("Usage: ReplayLog <file> [--to N]");
+        ReplayLog log = load(Path.of(args[0]));
+        int to = log.moveCount();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            if (!args[i].equals("--to")) throw new IllegalArgumentException("Unknown option: " + args[i]);
+            to = Math.min(Integer.parseInt(args[i + 1]), log.moveCount());
+        }
+        long t0 = System.nanoTime();
+        GameSession session = log.playTo(to);
+        long nanos = System.nanoTime() - t0;
+        System.out.printf("board=%dx%d seed=%d moves=%d/%d (%.1f ms)%n",
+                log.rows(), log.cols(), log.seed(), to, log.moveCount(), nanos / 1e6);
+        Board board = session.getBoard();
+        for (int r = 0; r < board.rows(); r++) {
+            StringBuilder sb = new StringBuilder();
+            for (int c = 0; c < board.cols(); c++) {
+                byte t = board.get(r, c);
+                sb.append(t == Board.EMPTY ? " ." : String.format("%2d", t));
+            }
+            System.out.println(sb);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无界面多局服务器：一个 JVM 里同时托管大量棋盘，每局的走子循环跑在自己的（虚拟）线程上。
+ *
+ * 每局只保存紧凑状态：格子类型 byte[]、随机数种子和几个计数，8x8 棋盘约一两百字节。
+ * 结算用的引擎（Board + CascadeEngine + MoveGenerator 等几 KB 的缓冲区）放在共享池里，
+ * 走一步时借出、载入这一局、结算、写回、归还；同时在用的引擎数只等于同时在跑的线程数。
+ * 规则与 {@link GameSession} 相同（4 邻接 >= 3 消除、连消到稳定、死局重排），
+ * 每步的随机数由本局种子接力，同一种子得到同一局，但随机序列与 GameSession 不同，不能混用回放。
+ *
+ * 运行在 JDK 21+ 时每局一个虚拟线程（反射取得 {@code Executors.newVirtualThreadPerTaskExecutor}），
+ * 更早的 JDK 上退回按 CPU 核数的固定线程池。
+ */
+public class SessionServer implements AutoCloseable {
+
+    /** 一局的紧凑状态 */
+    private static final class Session {
+        final byte[] cells;
+        long seed;          // 下一步的随机数种子
+        int moves;
+        int shuffles;
+        long cleared;
+
+        Session(int size) {
+            this.cells = new byte[size];
+        }
+    }
+
+    /** 可复用的结算引擎 */
+    private static final class Engine {
+        final Board board;
+        final CascadeEngine cascade;
+        final MoveGenerator moves;
+        final int[] changed = new int[2];
+
+        Engine(int rows, int cols, byte[] palette) {
+            board = new Board(rows, cols);
+            cascade = new CascadeEngine(board, palette, 0L);
+            moves = cascade.getMoveGenerator();
+        }
+    }
+
+    /** 汇总统计 */
+    public static final class Stats {
+        public final int sessions;
+        public final long moves, cleared, shuffles, nanos;
+        public final Metrics.Snapshot latency;
+
+        Stats(int sessions, long moves, long cleared, long shuffles, long nanos, Metrics.Snapshot latency) {
+            this.sessions = sessions;
+            this.moves = moves;
+            this.cleared = cleared;
+            this.shuffles = shuffles;
+            this.nanos = nanos;
+            this.latency = latency;
+        }
+
+        public double movesPerSecond() { return nanos == 0 ? 0 : moves * 1e9 / nanos; }
+
+        @Override
+        public String toString() {
+            return String.format("sessions=%d moves=%d cleared/move=%.2f shuffles=%d moves/sec=%.0f%n"
+                            + "latency p50=%.3fms p99=%.3fms max=%.3fms",
+                    sessions, moves, moves == 0 ? 0 : cleared / (double) moves, shuffles, movesPerSecond(),
+                    latency.percentileMillis(0.5), latency.percentileMillis(0.99), latency.max / 1e6);
+        }
+    }
+
+    private final int rows, cols;
+    private final byte[] palette;
+    private final List<Session> sessions = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Engine> engines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enginesCreated = new AtomicInteger();
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    private final Metrics.Histogram latency = new Metrics.Histogram("server-move");
+    private final LongAdder totalMoves = new LongAdder();
+    private final LongAdder totalCleared = new LongAdder();
+    private final LongAdder totalShuffles = new LongAdder();
+    private long busyNanos;
+
+    public SessionServer(int rows, int cols, byte[] palette) {
+        if (palette == null || palette.length == 0) throw new IllegalArgumentException("Palette is empty.");
+        this.rows = rows;
+        this.cols = cols;
+        this.palette = palette.clone();
+        ExecutorService vt = newVirtualThreadExecutor();
+        this.virtual = vt != null;
+        this.executor = vt != null ? vt : newPlatformExecutor();
+    }
+
+    /** 是否在用虚拟线程 */
+    public boolean usesVirtualThreads() { return virtual; }
+
+    public synchronized int sessionCount() { return sessions.size(); }
+
+    /**
+     * 新开一局（初始棋盘没有现成的消除、保证有可走的一步）。
+     *
+     * @return 该局编号
+     */
+    public synchronized int open(long seed) {
+        Session s = new Session(rows * cols);
+        Engine e = borrow();
+        try {
+            e.cascade.reseed(seed);
+            e.cascade.generate();
+            s.seed = e.cascade.nextSeed();
+            e.board.copyTo(s.cells);
+        } finally {
+            engines.add(e);
+        }
+        sessions.add(s);
+        return sessions.size() - 1;
+    }
+
+    /**
+     * 所有局各自在自己的线程上连续走 movesPerSession 步（贪心：每步选消除最多的交换），全部结束后返回。
+     */
+    public Stats runAll(int movesPerSession) throws InterruptedException {
+        List<Session> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(sessions);
+        }
+        long t0 = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(snapshot.size());
+        for (Session s : snapshot) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < movesPerSession; i++) step(s);
+            }));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Session failed.", e.getCause());
+            }
+        }
+        synchronized (this) {
+            busyNanos += System.nanoTime() - t0;
+        }
+        return stats();
+    }
+
+    /** 一局走一步；返回消除数 */
+    private int step(Session s) {
+        long t0 = System.nanoTime();
+        Engine e = borrow();
+        int cleared = 0;
+        try {
+            e.board.copyFrom(s.cells);
+            e.cascade.reseed(s.seed);
+            int move = e.moves.bestMove();
+            if (move == Moves.NONE) return 0; // 重排失败的极小棋盘：这一局停在原地
+            int a = Moves.first(move), b = Moves.second(move, cols);
+            e.board.swap(a, b);
+            e.changed[0] = a;
+            e.changed[1] = b;
+            List<CascadeStep> steps = e.cascade.resolve(e.changed, 2);
+            for (int k = 0; k < steps.size(); k++) cleared += steps.get(k).removed.length;
+            if (e.cascade.shuffleIfDeadlocked() != null) {
+                s.shuffles++;
+                totalShuffles.increment();
+            }
+            s.seed = e.cascade.nextSeed();
+            // 只有本局自己的线程写 cells；加锁是为了 board(id) 不会读到写了一半的棋盘
+            synchronized (s) {
+                e.board.copyTo(s.cells);
+            }
+        } finally {
+            engines.add(e);
+        }
+        s.moves++;
+        s.cleared += cleared;
+        totalMoves.increment();
+        totalCleared.add(cleared);
+        latency.record(System.nanoTime() - t0);
+        return cleared;
+    }
+
+    private Engine borrow() {
+        Engine e = engines.poll();
+        if (e != null) return e;
+        enginesCreated.incrementAndGet();
+        return new Engine(rows, cols, palette);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(sessions.size(), totalMoves.sum(), totalCleared.sum(), totalShuffles.sum(), busyNanos,
+                latency.snapshot());
+    }
+
+    /** 某一局当前的棋盘（副本）；{@link #runAll} 进行中也可调用，得到的是该局某一步走完后的完整棋盘 */
+    public Board board(int id) {
+        Session s;
+        synchronized (this) {
+            s = sessions.get(id);
+        }
+        Board b = new Board(rows, cols);
+        synchronized (s) {
+            b.copyFrom(s.cells);
+        }
+        return b;
+    }
+
+    /** 已创建的结算引擎数（等于曾经同时在走子的线程数峰值） */
+    public int engineCount() { return enginesCreated.get(); }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /** JDK 21+ 的虚拟线程执行器；不支持时返回 null */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor() {
+        AtomicInteger id = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "SessionServer-" + id.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /* -------------------- 命令行 -------------------- */
+
+    /**
+     * 压测：
+     * <pre>
+     * java SessionServer --sessions 10000 --moves 100 --rows 8 --cols 8 --types 6 --seed 1
+     * </pre>
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = 10_000, moves = 100, rows = 8, cols = 8, types = 6;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--sessions": count = Integer.parseInt(v); break;
+                case "--moves":    moves = Integer.parseInt(v); break;
+                case "--rows":     rows = Integer.parseInt(v); break;
+                case "--cols":     cols = Integer.parseInt(v); break;
+                case "--types":    types = Integer.parseInt(v); break;
+                case "--seed":     seed = Long.parseLong(v); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        try (SessionServer server = new SessionServer(rows, cols, GameSimulator.defaultPalette(types))) {
+            Runtime rt = Runtime.getRuntime();
+            System.gc();
+            long heap0 = rt.totalMemory() - rt.freeMemory();
+            for (int i = 0; i < count; i++) server.open(seed + i);
+            System.gc();
+            long heap1 = rt.totalMemory() - rt.freeMemory();
+            System.out.printf("board=%dx%d types=%d threads=%s heap/session~%dB%n",
+                    rows, cols, types, server.usesVirtualThreads() ? "virtual" : "platform",
+                    (heap1 - heap0) / Math.max(1, count));
+            Stats stats = server.runAll(moves);
+            System.out.println(stats);
+            System.out.println("engines=" + server.engineCount());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多步搜索求解器：在 {@link Board} 模型上向前看若干步，选期望消除数最多的交换。
+ *
+ * <ul>
+ *   <li>期望搜索（expectimax）：走子节点取最大；每步交换后的补充是随机的，用 {@link #samples} 组
+ *       固定种子（由棋盘哈希、走法、样本号导出）各结算一次取平均，同一局面的结果可复现。</li>
+ *   <li>根节点的候选走法用 {@link ForkJoinPool} 二分拆给多个线程，每个叶子任务有自己的棋盘 / 引擎。</li>
+ *   <li>置换表：{@link Zobrist} 棋盘哈希混入剩余深度作键，线程间共享且无锁；
+ *       哈希随搜索增量更新（交换 + 连消改动过的格子），不在每个节点整盘重算。</li>
+ *   <li>迭代加深：从 1 层开始逐层加深，超出时间预算时丢弃未完成的一层，返回上一层的结果。</li>
+ * </ul>
+ * 前提：棋盘当前是稳定的（没有可消除的块）。
+ */
+public class Solver {
+
+    /** 搜索结果 */
+    public static final class Result {
+        public final int move;       // Moves 编码；无可走时为 Moves.NONE
+        public final double score;   // 期望消除方块数（含后续各层）
+        public final int depth;      // 完整搜索的层数
+        public final long nodes;     // 访问的走子节点数
+
+        Result(int move, double score, int depth, long nodes) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("move=%d score=%.2f depth=%d nodes=%d", move, score, depth, nodes);
+        }
+    }
+
+    /** 每个走子节点的补充样本数默认值 */
+    public static final int DEFAULT_SAMPLES = 4;
+    /** 置换表默认容量（2 的幂） */
+    public static final int DEFAULT_TABLE_LOG2 = 20;
+    /** 每访问这么多节点检查一次时间 */
+    private static final int CLOCK_MASK = 255;
+
+    private final byte[] palette;
+    private final int samples;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private Zobrist zobrist;         // 按棋盘大小懒创建
+    private final long[] depthKeys = new long[64];
+
+    // ===== 本次 solve 的共享状态 =====
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean aborted;
+    private long deadline;
+
+    public Solver(byte[] palette) {
+        this(palette, DEFAULT_SAMPLES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param palette 补充类型（与 CascadeEngine 相同）
+     * @param samples 每步交换的补充样本数
+     * @param pool    根节点并行用的线程池
+     */
+    public Solver(byte[] palette, int samples, ForkJoinPool pool) {
+        if (palette == null || palette.length == 0) throw new IllegalArgumentException("Palette is empty.");
+        if (samples <= 0) throw new IllegalArgumentException("samples must be > 0");
+        this.palette = palette.clone();
+        this.samples = samples;
+        this.pool = pool;
+        this.table = new TranspositionTable(DEFAULT_TABLE_LOG2);
+        for (int d = 0; d < depthKeys.length; d++) depthKeys[d] = mix(0x9E3779B97F4A7C15L * (d + 1));
+    }
+
+    /**
+     * 选一步交换。
+     *
+     * @param maxDepth     最多向前看的层数（>= 1）
+     * @param budgetMillis 时间预算；第 1 层总会完整搜索，之后超时即停止加深
+     */
+    public synchronized Result solve(Board board, int maxDepth, long budgetMillis) {
+        if (maxDepth < 1 || maxDepth >= depthKeys.length) throw new IllegalArgumentException("maxDepth out of range");
+        if (zobrist == null || zobrist.cells() != board.size()) zobrist = new Zobrist(board.size(), palette, 0x5EED_CAFEL);
+
+        MoveGenerator gen = new MoveGenerator(board.copy());
+        int count = gen.generate();
+        if (count == 0) return new Result(Moves.NONE, 0, 0, 0);
+        int[] rootMoves = new int[count];
+        for (int k = 0; k < count; k++) rootMoves[k] = gen.move(k);
+
+        nodes.reset();
+        long start = System.nanoTime();
+        Result best = null;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            aborted = false;
+            deadline = depth == 1 ? Long.MAX_VALUE : start + budgetMillis * 1_000_000L;
+            Best b = pool.invoke(new RootTask(board, rootMoves, 0, count, depth));
+            if (aborted) break;
+            best = new Result(b.move, b.score, depth, nodes.sum());
+            if (System.nanoTime() - start >= budgetMillis * 1_000_000L) break;
+        }
+        return new Result(best.move, best.score, best.depth, nodes.sum());
+    }
+
+    /* -------------------- 根节点并行 -------------------- */
+
+    /** 根节点的一段走法：多于一步时二分 fork，否则在当前线程搜索 */
+    private final class RootTask extends RecursiveTask<Best> {
+        private final Board root;
+        private final int[] rootMoves;
+        private final int lo, hi, depth;
+
+        RootTask(Board root, int[] rootMoves, int lo, int hi, int depth) {
+            this.root = root;
+            this.rootMoves = rootMoves;
+            this.lo = lo;
+            this.hi = hi;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Best compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                RootTask left = new RootTask(root, rootMoves, lo, mid, depth);
+                left.fork();
+                Best right = new RootTask(root, rootMoves, mid, hi, depth).compute();
+                return Best.better(left.join(), right);
+            }
+            Context ctx = new Context(root, depth);
+            ctx.boards[depth].copyFrom(root);
+            long hash = zobrist.hash(root);
+            Best best = new Best(rootMoves[lo], expectMove(ctx, depth, hash, rootMoves[lo]));
+            nodes.add(ctx.visited);
+            return best;
+        }
+    }
+
+    /** 某一段的最优走法（并列取编码最小的，保证结果与线程调度无关） */
+    private static final class Best {
+        final int move;
+        final double score;
+
+        Best(int move, double score) {
+            this.move = move;
+            this.score = score;
+        }
+
+        static Best better(Best a, Best b) {
+            if (a.score != b.score) return a.score > b.score ? a : b;
+            return a.move <= b.move ? a : b;
+        }
+    }
+
+    /* -------------------- 期望搜索 -------------------- */
+
+    /** 每层一份棋盘和引擎：boards[d] 是剩余 d 层时的局面 */
+    private final class Context {
+        final Board[] boards;
+        final CascadeEngine[] engines;
+        final int[][] changed;          // changed[d]：在 boards[d] 上交换的两格
+        final int[] touched;            // 增量哈希时给格子去重的访问戳
+        int stamp;
+        long visited;                   // 本任务访问的走子节点数（结束时汇总到 nodes）
+
+        Context(Board shape, int depth) {
+            boards = new Board[depth + 1];
+            engines = new CascadeEngine[depth + 1];
+            changed = new int[depth + 1][2];
+            touched = new int[shape.size()];
+            for (int d = 0; d <= depth; d++) {
+                boards[d] = new Board(shape.rows(), shape.cols());
+                engines[d] = new CascadeEngine(boards[d], palette, 0L);
+            }
+        }
+    }
+
+    /** 剩余 depth 层、局面为 boards[depth]（哈希为 hash）时的最大期望得分 */
+    private double searchMax(Context ctx, int depth, long hash) {
+        if (depth == 0 || aborted) return 0;
+        long key = hash ^ depthKeys[depth];
+        double cached = table.get(key);
+        if (!Double.isNaN(cached)) return cached;
+
+        MoveGenerator gen = ctx.engines[depth].getMoveGenerator();
+        int count = gen.generate();
+        double best = 0;
+        for (int k = 0; k < count && !aborted; k++) {
+            best = Math.max(best, expectMove(ctx, depth, hash, gen.move(k)));
+        }
+        if (!aborted) table.put(key, best);
+        return best;
+    }
+
+    /** 在 boards[depth] 上走 move：对各补充样本结算，取“本步消除 + 后续最优”的平均 */
+    private double expectMove(Context ctx, int depth, long hash, int move) {
+        if ((ctx.visited++ & CLOCK_MASK) == 0 && System.nanoTime() > deadline) aborted = true;
+
+        Board parent = ctx.boards[depth];
+        Board child = ctx.boards[depth - 1];
+        CascadeEngine engine = ctx.engines[depth - 1];
+        int a = Moves.first(move), b = Moves.second(move, parent.cols());
+        int[] changed = ctx.changed[depth];
+        changed[0] = a;
+        changed[1] = b;
+        long swapped = hash ^ zobrist.swapDelta(a, parent.get(a), b, parent.get(b));
+
+        double total = 0;
+        for (int s = 0; s < samples; s++) {
+            child.copyFrom(parent);
+            child.swap(a, b);
+            engine.reseed(mix(hash ^ (move * 0xBF58476D1CE4E5B9L) ^ (s * 0x94D049BB133111EBL)));
+            List<CascadeStep> steps = engine.resolve(changed, 2);
+            int cleared = 0;
+            for (int k = 0; k < steps.size(); k++) cleared += steps.get(k).removed.length;
+            total += cleared + searchMax(ctx, depth - 1, childHash(ctx, parent, child, a, b, swapped, steps));
+        }
+        return total / samples;
+    }
+
+    /**
+     * 连消后的子局面哈希：从交换后的哈希出发，只对连消改动过的格子（消除、下落两端、补充）
+     * 异或掉交换后的旧类型、异或进结算后的新类型；每格只算一次。
+     */
+    private long childHash(Context ctx, Board parent, Board child, int a, int b, long swapped,
+                           List<CascadeStep> steps) {
+        if (steps.isEmpty()) return swapped;
+        int stamp = ++ctx.stamp;
+        if (stamp == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(ctx.touched, 0);
+            stamp = ctx.stamp = 1;
+        }
+        long h = swapped;
+        for (int k = 0; k < steps.size(); k++) {
+            CascadeStep step = steps.get(k);
+            h = touch(ctx, parent, child, a, b, h, stamp, step.removed);
+            h = touch(ctx, parent, child, a, b, h, stamp, step.moveFrom);
+            h = touch(ctx, parent, child, a, b, h, stamp, step.moveTo);
+            h = touch(ctx, parent, child, a, b, h, stamp, step.spawnCell);
+        }
+        return h;
+    }
+
+    private long touch(Context ctx, Board parent, Board child, int a, int b, long h, int stamp, int[] cells) {
+        int[] touched = ctx.touched;
+        for (int cell : cells) {
+            if (touched[cell] == stamp) continue;
+            touched[cell] = stamp;
+            // 交换后的旧类型：a、b 两格互换，其余格与父局面相同
+            byte before = parent.get(cell == a ? b : cell == b ? a : cell);
+            h ^= zobrist.key(cell, before) ^ zobrist.key(cell, child.get(cell));
+        }
+        return h;
+    }
+
+    /** splitmix64 终结函数 */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
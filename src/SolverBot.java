@@ -0,0 +1,52 @@
+import java.util.Random;
+
+/**
+ * 多步搜索：用 {@link Solver} 向前看若干步（含随机补充的期望）选一步；都不能消除时退回随机。
+ * 补充类型取自当前棋盘上出现过的类型。
+ */
+public class SolverBot implements Bot {
+    private final RandomBot fallback = new RandomBot();
+    private final int depth;
+    private final long budgetMillis;
+    private Solver solver;
+    private byte[] palette;
+
+    public SolverBot() {
+        this(3, 50);
+    }
+
+    public SolverBot(int depth, long budgetMillis) {
+        this.depth = depth;
+        this.budgetMillis = budgetMillis;
+    }
+
+    @Override
+    public int chooseMove(Board board, Random rng) {
+        byte[] types = typesOf(board);
+        if (solver == null || !java.util.Arrays.equals(types, palette)) {
+            palette = types;
+            solver = new Solver(palette);
+        }
+        int best = solver.solve(board, depth, budgetMillis).move;
+        return best != Moves.NONE ? best : fallback.chooseMove(board, rng);
+    }
+
+    /** 棋盘上出现过的类型（升序） */
+    private static byte[] typesOf(Board board) {
+        boolean[] seen = new boolean[Board.MAX_TYPES];
+        int count = 0;
+        for (int i = 0; i < board.size(); i++) {
+            byte t = board.get(i);
+            if (t != Board.EMPTY && !seen[t]) {
+                seen[t] = true;
+                count++;
+            }
+        }
+        byte[] types = new byte[count];
+        for (int t = 0, k = 0; t < Board.MAX_TYPES; t++) if (seen[t]) types[k++] = (byte) t;
+        return types;
+    }
+
+    @Override
+    public String name() { return "solver"; }
+}
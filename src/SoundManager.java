@@ -3,8 +3,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SoundManager {
 
@@ -12,19 +16,58 @@ public class SoundManager {
     public static String MOVE_SOUND = "/sounds/move.wav";
     public static String DESTROY_SOUND = "/sounds/destroy.wav";
 
-    /** 缓存：存已解码的 PCM 数据与格式（不是 Clip，本类每次播放都会新建 Clip） */
-    private static final Map<String, CachedAudio> AUDIO_CACHE = new ConcurrentHashMap<>();
+    /**
+     * 缓存：存已解码的 PCM 数据与格式（混音模式直接读取其样本；旧模式每次播放新建 Clip）。
+     * 按访问顺序排列，总字节数超过上限时淘汰最久未用的条目；访问时对自身加锁。
+     */
+    private static final LinkedHashMap<String, CachedAudio> AUDIO_CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long audioCacheBytes = 0;
+
+    /** 解码缓存上限（字节） */
+    private static volatile long AUDIO_CACHE_MAX_BYTES = 8L << 20;
+
+    /** 解码后（混音格式）超过这个大小的音频不进缓存，改为流式播放 */
+    public static final long STREAM_THRESHOLD_BYTES = 1L << 20;
+
+    /** 资源 -> 是否需要流式播放（读过文件头的都记下，短音效不必每次缓存未命中都重读文件头） */
+    private static final Map<String, Boolean> STREAMED = new ConcurrentHashMap<>();
+
+    /** 当前背景音乐（流式、循环） */
+    private static volatile AudioStream MUSIC;
 
     /** 全局音量（分贝，0 为原始，负值更小，如 -10f），对“之后的播放”生效 */
     private static volatile float GLOBAL_GAIN_DB = -10f;
 
+    /** 混音模式：所有音效走同一条常驻输出线（默认开启）；关闭后退回“每次新建 Clip” */
+    private static volatile boolean MIXER_ENABLED = true;
+
+    /** 同时发声的最大声部数，超出时抢占最早的声部 */
+    private static final int MAX_VOICES = 8;
+
+    /** 软件混音器（首次播放时启动） */
+    private static final AudioMixer MIXER = new AudioMixer(MAX_VOICES);
+
+    /** 缓存未命中时的解码 / 播放都排进这一个后台线程，不再每次播放新建线程；同一音效排队的第二次直接命中缓存 */
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "SoundLoad");
+        t.setDaemon(true);
+        return t;
+    });
+
     /** 简单的封装结构 */
-    private static class CachedAudio {
+    static class CachedAudio {
         final AudioFormat format;
-        final byte[] data;
-        CachedAudio(AudioFormat format, byte[] data) {
+        final byte[] data;        // 原始 PCM，只有 Clip 旧路径用得到；混音模式下解码的为 null
+        final short[] mixSamples; // 转换为混音格式的样本（44.1kHz 立体声）
+        CachedAudio(AudioFormat format, byte[] data, boolean keepRaw) {
             this.format = format;
-            this.data = data;
+            this.data = keepRaw ? data : null;
+            this.mixSamples = toMixSamples(format, data);
+        }
+
+        /** 占用的字节数（原始 PCM（若保留）+ 混音样本） */
+        long bytes() {
+            return (data == null ? 0 : data.length) + 2L * mixSamples.length;
         }
     }
 
@@ -37,11 +80,121 @@ public class SoundManager {
     /** 设置全局音量（dB，负值更小，0 原音量，例如 -10f） */
     public static void setGlobalGain(float gainDb) { GLOBAL_GAIN_DB = gainDb; }
 
-    /** 播放指定资源（每次调用都新建 Clip；失败不会阻塞 UI） */
+    /** 开关混音模式 */
+    public static void setMixerEnabled(boolean enabled) { MIXER_ENABLED = enabled; }
+
+    /** 设置解码缓存上限（字节），立即按新上限淘汰 */
+    public static void setAudioCacheLimit(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("maxBytes must be >= 0");
+        AUDIO_CACHE_MAX_BYTES = maxBytes;
+        synchronized (AUDIO_CACHE) {
+            evict();
+        }
+    }
+
+    /** 解码缓存当前占用的字节数 */
+    public static long audioCacheBytes() {
+        synchronized (AUDIO_CACHE) {
+            return audioCacheBytes;
+        }
+    }
+
+    /**
+     * 循环播放背景音乐（流式，替换正在播放的音乐）。
+     * 只占固定数量的缓冲块，与文件长度无关；总是经由混音器输出。
+     */
+    public static void playMusic(String resourcePath) {
+        stopMusic();
+        AudioStream s = AudioStream.open(resourcePath, true);
+        if (s == null) {
+            System.err.println("⚠️ 找不到音频资源: " + resourcePath);
+            return;
+        }
+        MUSIC = s;
+        MIXER.playStream(s, dbToLinear(GLOBAL_GAIN_DB));
+    }
+
+    /** 停止背景音乐 */
+    public static void stopMusic() {
+        AudioStream s = MUSIC;
+        MUSIC = null;
+        if (s != null) MIXER.stopStream(s);
+    }
+
+    /** 提前打开混音输出线（打开声卡较慢，避免第一次播放时才打开） */
+    public static void warmUp() {
+        if (MIXER_ENABLED) MIXER.start();
+    }
+
+    /** 播放指定资源（失败不会阻塞 UI） */
     public static void play(String resourcePath) {
-        new Thread(() -> {
+        play(resourcePath, 0f);
+    }
+
+    /**
+     * 以附加增益播放指定资源。
+     * 混音模式下：已缓存的音效直接占用一个声部，不开线程、不分配；首次播放在后台线程解码后再发声。
+     *
+     * @param gainDb 叠加在全局音量上的增益（dB）
+     */
+    public static void play(String resourcePath, float gainDb) {
+        long t0 = System.nanoTime();
+        if (!MIXER_ENABLED && !Boolean.TRUE.equals(STREAMED.get(resourcePath))) {
+            playWithClip(resourcePath, t0, gainDb);
+            return;
+        }
+        CachedAudio ca = cached(resourcePath);
+        if (ca != null) {
+            MIXER.play(ca.mixSamples, dbToLinear(GLOBAL_GAIN_DB + gainDb));
+            recordStart(resourcePath, t0, true);
+            return;
+        }
+        LOADER.execute(() -> {
+            if (playStreamed(resourcePath, gainDb, t0)) return;
+            CachedAudio loaded = loadPcm(resourcePath);
+            if (loaded == null) {
+                System.err.println("⚠️ 找不到音频资源: " + resourcePath);
+                return;
+            }
+            MIXER.play(loaded.mixSamples, dbToLinear(GLOBAL_GAIN_DB + gainDb));
+            recordStart(resourcePath, t0, false);
+        });
+    }
+
+    /** 记录启动延迟（调用 play 到开始发声） */
+    private static void recordStart(String resourcePath, long t0, boolean cached) {
+        long latency = System.nanoTime() - t0;
+        Metrics.SOUND.record(latency);
+        PerfEvents.SoundStarted event = new PerfEvents.SoundStarted();
+        if (event.isEnabled()) {
+            event.resource = resourcePath;
+            event.cached = cached;
+            event.latencyNanos = latency;
+            event.commit();
+        }
+    }
+
+    /** 长音频：流式播放一次；不是长音频时返回 false */
+    private static boolean playStreamed(String resourcePath, float gainDb, long t0) {
+        if (!isStreamed(resourcePath)) return false;
+        AudioStream s = AudioStream.open(resourcePath, false);
+        if (s == null) {
+            System.err.println("⚠️ 找不到音频资源: " + resourcePath);
+            return true;
+        }
+        MIXER.playStream(s, dbToLinear(GLOBAL_GAIN_DB + gainDb));
+        recordStart(resourcePath, t0, false);
+        return true;
+    }
+
+    /** 旧路径：每次调用都新建 Clip（在后台线程上打开；长音频仍走流式） */
+    private static void playWithClip(String resourcePath, long t0, float gainDb) {
+        LOADER.execute(() -> {
             try {
+                if (playStreamed(resourcePath, gainDb, t0)) return;
                 CachedAudio ca = loadPcm(resourcePath);
+                // 混音模式下缓存的条目没有原始 PCM：这次单独解码一份，不进缓存
+                if (ca != null && ca.data == null) ca = decodePcm(resourcePath, true);
                 if (ca == null) {
                     System.err.println("⚠️ 找不到音频资源: " + resourcePath);
                     return;
@@ -54,6 +207,7 @@ public class SoundManager {
                 applyGain(clip, GLOBAL_GAIN_DB);
 
                 clip.start();
+                recordStart(resourcePath, t0, false);
                 clip.addLineListener(ev -> {
                     if (ev.getType() == LineEvent.Type.STOP) {
                         try { clip.close(); } catch (Exception ignore) {}
@@ -64,14 +218,91 @@ public class SoundManager {
             } catch (Exception e) {
                 System.err.println("音频播放失败: " + resourcePath + " -> " + e.getMessage());
             }
-        }, "SoundPlay-" + resourcePath).start();
+        });
     }
 
-    /** 读取并缓存为 PCM_SIGNED 16-bit 的音频数据（若已缓存则直接返回） */
-    private static CachedAudio loadPcm(String resourcePath) {
-        CachedAudio cached = AUDIO_CACHE.get(resourcePath);
+    /**
+     * 预加载：短音效解码进缓存；长音频只确认存在（播放时流式解码）。
+     *
+     * @return 找不到或无法解码时返回 false
+     */
+    public static boolean preload(String resourcePath) {
+        if (isStreamed(resourcePath)) return SoundManager.class.getResource(resourcePath) != null;
+        return loadPcm(resourcePath) != null;
+    }
+
+    /**
+     * 读取并缓存为 PCM_SIGNED 16-bit 的音频数据（若已缓存则直接返回）。
+     * 长音频（见 {@link #STREAM_THRESHOLD_BYTES}）返回 null 且不解码，应改用 {@link AudioStream} 播放。
+     * 解码后比整个缓存上限还大的音频（文件头估不准、或上限调得很小）这次照常返回，但不进缓存，
+     * 之后按长音频流式播放，不会每次重新整段解码，也不会把其它音效全部挤出缓存。
+     */
+    static CachedAudio loadPcm(String resourcePath) {
+        CachedAudio cached = cached(resourcePath);
         if (cached != null) return cached;
+        // 先看文件头：长音频整段读进内存会绕过缓存上限
+        if (isStreamed(resourcePath)) return null;
+
+        CachedAudio ca = decodePcm(resourcePath);
+        if (ca != null && ca.bytes() > AUDIO_CACHE_MAX_BYTES) {
+            STREAMED.put(resourcePath, Boolean.TRUE);
+        } else if (ca != null) {
+            synchronized (AUDIO_CACHE) {
+                CachedAudio old = AUDIO_CACHE.put(resourcePath, ca);
+                if (old != null) audioCacheBytes -= old.bytes();
+                audioCacheBytes += ca.bytes();
+                evict();
+            }
+        }
+        return ca;
+    }
+
+    private static CachedAudio cached(String resourcePath) {
+        synchronized (AUDIO_CACHE) {
+            return AUDIO_CACHE.get(resourcePath);
+        }
+    }
+
+    /** 超出上限时按最久未用淘汰（调用方持有 AUDIO_CACHE 锁） */
+    private static void evict() {
+        Iterator<CachedAudio> it = AUDIO_CACHE.values().iterator();
+        while (audioCacheBytes > AUDIO_CACHE_MAX_BYTES && it.hasNext()) {
+            audioCacheBytes -= it.next().bytes();
+            it.remove();
+        }
+    }
 
+    /**
+     * 是否按长音频处理：由文件头估算转换成混音格式后的大小，超过阈值或长度未知即为长音频。
+     * 只读文件头，不解码；结果（包括否定的）记在 STREAMED 里。
+     */
+    static boolean isStreamed(String resourcePath) {
+        Boolean known = STREAMED.get(resourcePath);
+        if (known != null) return known;
+        URL url = SoundManager.class.getResource(resourcePath);
+        if (url == null) return false;
+        try {
+            AudioFileFormat aff = AudioSystem.getAudioFileFormat(url);
+            AudioFormat f = aff.getFormat();
+            long frames = aff.getFrameLength();
+            boolean large = frames == AudioSystem.NOT_SPECIFIED
+                    || frames * (AudioMixer.SAMPLE_RATE / f.getSampleRate()) * AudioMixer.FORMAT.getFrameSize()
+                    > STREAM_THRESHOLD_BYTES;
+            STREAMED.put(resourcePath, large);
+            return large;
+        } catch (UnsupportedAudioFileException | IOException e) {
+            STREAMED.put(resourcePath, Boolean.FALSE);
+            return false;
+        }
+    }
+
+    /** 解码为 PCM_SIGNED 16-bit（不读写缓存）；只在 Clip 旧路径下保留原始 PCM */
+    static CachedAudio decodePcm(String resourcePath) {
+        return decodePcm(resourcePath, !MIXER_ENABLED);
+    }
+
+    /** @param keepRaw 是否保留原始 PCM（Clip 播放需要） */
+    static CachedAudio decodePcm(String resourcePath, boolean keepRaw) {
         try {
             URL url = SoundManager.class.getResource(resourcePath);
             if (url == null) return null;
@@ -100,15 +331,51 @@ public class SoundManager {
             closeQuietly(pcmStream);
             closeQuietly(in);
 
-            CachedAudio ca = new CachedAudio(pcmStream.getFormat(), data);
-            AUDIO_CACHE.put(resourcePath, ca);
-            return ca;
+            return new CachedAudio(pcmStream.getFormat(), data, keepRaw);
         } catch (UnsupportedAudioFileException | IOException e) {
             System.err.println("加载音频失败: " + resourcePath + " -> " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * 把 16-bit little-endian PCM 转成混音格式（交错立体声、44.1kHz）。
+     * 单声道复制到左右声道，多于两声道只取前两个；采样率不同则线性插值重采样。
+     */
+    private static short[] toMixSamples(AudioFormat format, byte[] data) {
+        if (format.getSampleSizeInBits() != 16 || format.isBigEndian()
+                || !AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())) {
+            return new short[0];
+        }
+        int ch = Math.max(1, format.getChannels());
+        int srcFrames = data.length / (2 * ch);
+        double ratio = format.getSampleRate() / AudioMixer.SAMPLE_RATE;
+        int dstFrames = (int) (srcFrames / ratio);
+        short[] out = new short[dstFrames * 2];
+        for (int f = 0; f < dstFrames; f++) {
+            double pos = f * ratio;
+            int i0 = (int) pos;
+            int i1 = Math.min(i0 + 1, srcFrames - 1);
+            double frac = pos - i0;
+            for (int c = 0; c < 2; c++) {
+                int sc = Math.min(c, ch - 1);
+                int s0 = sampleAt(data, (i0 * ch + sc) * 2);
+                int s1 = sampleAt(data, (i1 * ch + sc) * 2);
+                out[f * 2 + c] = (short) Math.round(s0 + (s1 - s0) * frac);
+            }
+        }
+        return out;
+    }
+
+    private static int sampleAt(byte[] data, int offset) {
+        return (short) ((data[offset] & 0xff) | (data[offset + 1] << 8));
+    }
+
+    /** dB -> 线性增益 */
+    private static float dbToLinear(float db) {
+        return (float) Math.pow(10.0, db / 20.0);
+    }
+
     /** 读取流全部字节 */
     private static byte[] readAllBytes(InputStream is) throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream(4096);
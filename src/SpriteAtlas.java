@@ -0,0 +1,126 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方块贴图缓存：每张 PNG 只解码一次，按尺寸预缩放成与屏幕 GraphicsConfiguration 兼容的 BufferedImage，
+ * 所有格子共享同一张图。绘制时是 1:1 的直接拷贝，不再每个方块各自 getScaledInstance。
+ */
+public class SpriteAtlas {
+
+    /** 已解码的原图：资源路径 -> 图 */
+    private static final Map<String, BufferedImage> SOURCES = new ConcurrentHashMap<>();
+    /** 预缩放结果："路径@宽x高" -> 图 */
+    private static final Map<String, BufferedImage> SCALED = new ConcurrentHashMap<>();
+
+    private SpriteAtlas() {}
+
+    /**
+     * 取得缩放到 width x height 的贴图（首次调用时解码并缩放）。
+     *
+     * @return 找不到资源或解码失败时返回 null
+     */
+    public static BufferedImage get(String resourcePath, int width, int height) {
+        if (resourcePath == null) return null;
+        String key = resourcePath + '@' + width + 'x' + height;
+        BufferedImage img = SCALED.get(key);
+        if (img != null) return img;
+
+        BufferedImage src = source(resourcePath);
+        if (src == null) return null;
+        img = scale(src, width, height);
+        BufferedImage prev = SCALED.putIfAbsent(key, img);
+        return prev != null ? prev : img;
+    }
+
+    /** 只查缓存、不解码：尚未加载时返回 null（加载期间供 EDT 使用，避免在 EDT 上解码） */
+    public static BufferedImage peek(String resourcePath, int width, int height) {
+        if (resourcePath == null) return null;
+        return SCALED.get(resourcePath + '@' + width + 'x' + height);
+    }
+
+    /** 只查已解码的原图，不解码 */
+    public static BufferedImage peekSource(String resourcePath) {
+        return resourcePath == null ? null : SOURCES.get(resourcePath);
+    }
+
+    /** 解码原图（只做一次） */
+    public static BufferedImage source(String resourcePath) {
+        BufferedImage src = SOURCES.get(resourcePath);
+        if (src != null) return src;
+        URL url = SpriteAtlas.class.getResource(resourcePath);
+        if (url == null) {
+            System.err.println("⚠️ 找不到图片：" + resourcePath);
+            return null;
+        }
+        try {
+            src = ImageIO.read(url);
+        } catch (IOException e) {
+            System.err.println("加载图片失败: " + resourcePath + " -> " + e.getMessage());
+            return null;
+        }
+        if (src == null) return null;
+        BufferedImage prev = SOURCES.putIfAbsent(resourcePath, src);
+        return prev != null ? prev : src;
+    }
+
+    /**
+     * 只保留 keepW x keepH 与 prevW x prevH 两种尺寸（以及取平均色用的 1x1）的预缩放结果。
+     * 连续缩放时每经过一个格子尺寸就会缩放出一整套贴图，不丢掉的话缓存会随缩放次数无限增长。
+     */
+    public static void retainSizes(int keepW, int keepH, int prevW, int prevH) {
+        SCALED.keySet().removeIf(key -> {
+            String size = key.substring(key.lastIndexOf('@') + 1);
+            return !size.equals(keepW + "x" + keepH) && !size.equals(prevW + "x" + prevH) && !size.equals("1x1");
+        });
+    }
+
+    /** 清空缓存（例如切换贴图包） */
+    public static void clear() {
+        SOURCES.clear();
+        SCALED.clear();
+    }
+
+    /* -------------------- 缩放 -------------------- */
+
+    /**
+     * 逐级减半的双线性缩放（比一次性缩小更平滑），最后一步写入兼容屏幕的图像。
+     */
+    static BufferedImage scale(BufferedImage src, int width, int height) {
+        Image cur = src;
+        int w = src.getWidth(), h = src.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            cur = drawScaled(cur, w, h, new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB));
+        }
+        return drawScaled(cur, width, height, createCompatible(width, height));
+    }
+
+    private static BufferedImage drawScaled(Image src, int w, int h, BufferedImage dst) {
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    /** 与默认屏幕兼容的半透明图像；无显示设备时退回 ARGB_PRE */
+    static BufferedImage createCompatible(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 单生产者 / 单消费者的有界环形缓冲区，无锁：
+ * 生产者只写 tail、消费者只写 head，各自用 lazySet（release）发布，读对方的索引时才做 volatile 读，
+ * 并缓存上次读到的值，缓冲区不满 / 不空时不触碰对方的缓存行。
+ * 只能有一个线程 offer、一个线程 poll / drain。
+ */
+public final class SpscRing<E> {
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // 下一个要读的位置（消费者写）
+    private final AtomicLong tail = new AtomicLong(); // 下一个要写的位置（生产者写）
+    private long headCache;   // 生产者看到的 head
+    private long tailCache;   // 消费者看到的 tail
+
+    /** @param capacity 容量，向上取整到 2 的幂 */
+    public SpscRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) throw new IllegalArgumentException("Capacity invalid.");
+        int cap = Integer.highestOneBit(capacity);
+        if (cap < capacity) cap <<= 1;
+        this.buffer = new Object[cap];
+        this.mask = cap - 1;
+    }
+
+    public int capacity() { return buffer.length; }
+
+    /** 近似的元素数（两个线程都可以调用） */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean isEmpty() { return size() == 0; }
+
+    /** 生产者：放入一个元素；满时返回 false */
+    public boolean offer(E e) {
+        if (e == null) throw new IllegalArgumentException("Null element.");
+        long t = tail.getPlain();
+        if (t - headCache >= buffer.length) {
+            headCache = head.get();
+            if (t - headCache >= buffer.length) return false;
+        }
+        buffer[(int) t & mask] = e;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /** 消费者：取出一个元素；空时返回 null */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.getPlain();
+        if (h >= tailCache) {
+            tailCache = tail.get();
+            if (h >= tailCache) return null;
+        }
+        int i = (int) h & mask;
+        E e = (E) buffer[i];
+        buffer[i] = null;
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    /** 消费者：一次取出当前全部元素（最多 limit 个），只发布一次 head */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> sink, int limit) {
+        long h = head.getPlain();
+        long t = tail.get();
+        tailCache = t;
+        int n = (int) Math.min(limit, t - h);
+        for (int k = 0; k < n; k++) {
+            int i = (int) (h + k) & mask;
+            E e = (E) buffer[i];
+            buffer[i] = null;
+            sink.accept(e);
+        }
+        if (n > 0) head.lazySet(h + n);
+        return n;
+    }
+}
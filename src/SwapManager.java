@@ -1,74 +1,176 @@
-import javax.swing.*;
+import javax.swing.Timer;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+
+/**
+ * 点击交换控制器：第一次点击选中，第二次点击与相邻格交换。
+ * 交换与连消由 {@link GameLogic} 在逻辑线程上结算，结果以 {@link BoardEvent} 经无锁环形缓冲区送回，
+ * EDT 每帧取一次，再交给 {@link BoardView} 按顺序播放。EDT 不读写模型，只维护画面。
+ *
+ * 动画期间也接受输入：模型总是领先于画面，新的交换直接发给逻辑线程，
+ * 播放内容排队，上一段播放完立即接着播下一段，连续操作不必等每段动画结束。
+ * 未播放完的交换超过上限时丢弃并提示音。
+ */
+public class SwapManager implements BoardView.CellListener {
+
+    /** 连消播放时每一步的消除动画时长（毫秒） */
+    private static final int STEP_DURATION_MS = 220;
+
+    /** 死局重排动画时长（毫秒） */
+    private static final int SHUFFLE_DURATION_MS = 600;
+
+    /** 无操作多久后提示最佳交换（毫秒） */
+    private static final int HINT_DELAY_MS = 5000;
+
+    /** 最多同时在途（已发出、未播放完）的交换数 */
+    public static final int MAX_PENDING = 4;
 
-public class SwapManager implements ActionListener {
     private final int durationMs;     // 动画时长
-    private ImageButton selected = null;
-    private boolean swapping = false; // 动画期间节流
+    private final Board board;        // 棋盘模型（只用于几何判断，内容归逻辑线程）
+    private final BoardView view;     // 棋盘视图
+    private final GameLogic logic;    // 逻辑线程
+    private final Timer hintTimer;    // 空闲提示计时
+    private final Timer drainTimer;   // 每帧取一次事件
+    private final ArrayDeque<BoardEvent> pending = new ArrayDeque<>(); // 待播放事件
+    private int inFlight = 0;         // 已发出、尚未播放到 END / REJECT 的交换数
+    private boolean hintRequested = false; // 已请求提示、尚未收到结果
+    private boolean playing = false;  // 是否有播放进行中
 
-    public SwapManager(int durationMs) {
+    public SwapManager(GameSession session, BoardView view, int durationMs) {
+        this.board = session.getBoard();
+        this.view = view;
         this.durationMs = Math.max(0, durationMs);
+        this.logic = new GameLogic(session);
+        this.hintTimer = new Timer(HINT_DELAY_MS, e -> requestHint());
+        this.hintTimer.setRepeats(false);
+        this.drainTimer = new Timer(Animator.FRAME_MS, e -> drain());
+        logic.start();
+        hintTimer.restart(); // 初始棋盘在 GameSession 中已处理过死局
+    }
+
+    public Board getBoard() { return board; }
+
+    public GameLogic getLogic() { return logic; }
+
+    /** 开关“拒绝不能消除的交换”（默认关闭，保持原玩法：任何相邻交换都会执行） */
+    public void setRejectNonMatching(boolean reject) { logic.setRejectNonMatching(reject); }
+
+    /** 撤销一步（等在途的交换播放完才接受；没有可撤销的时提示音） */
+    public void undo() {
+        sendRestore(true);
+    }
+
+    /** 重做一步 */
+    public void redo() {
+        sendRestore(false);
+    }
+
+    private void sendRestore(boolean undo) {
+        if (inFlight > 0 || playing || !(undo ? logic.requestUndo() : logic.requestRedo())) {
+            Toolkit.getDefaultToolkit().beep();
+            return;
+        }
+        view.setSelected(-1);
+        resetHint();
+        inFlight++;
+        drainTimer.start();
+    }
+
+    /** 在途（已发出、尚未播放完）的交换数 */
+    public int pendingCount() { return inFlight; }
+
+    /** 空闲时请求逻辑线程计算最佳交换 */
+    private void requestHint() {
+        if (playing || inFlight > 0 || hintRequested) return;
+        if (!logic.requestHint()) return;
+        hintRequested = true;
+        drainTimer.start();
+    }
+
+    /** 有操作时清除提示并重新计时 */
+    private void resetHint() {
+        view.clearHint();
+        hintTimer.restart();
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if (swapping) return;
-        if (!(e.getSource() instanceof ImageButton)) return;
+    public void cellClicked(int cell) {
+        resetHint();
 
-        ImageButton btn = (ImageButton) e.getSource();
+        int selected = view.getSelected();
 
         // 第一次点击：进入“准备”
-        if (selected == null) {
-            selected = btn;
-            selected.setReady(true);
+        if (selected < 0) {
+            view.setSelected(cell);
             return;
         }
 
-        // 第二次点击：尝试与已选按钮交换
-        ImageButton other = btn;
+        // 取消高亮并清理选择状态（再点自己即取消准备）
+        view.setSelected(-1);
+        if (cell == selected) return;
 
-        // 再点自己：取消准备
-        if (other == selected) {
-            selected.setReady(false);
-            selected = null;
+        // 仅允许上下左右相邻
+        if (!board.areNeighbors(selected, cell)) {
+            Toolkit.getDefaultToolkit().beep();
             return;
         }
 
-        // 若任一处于动画中，忽略
-        if (selected.isAnimating() || other.isAnimating()) {
+        // 在途太多或请求缓冲区满：丢弃
+        if (inFlight >= MAX_PENDING || !logic.requestSwap(selected, cell)) {
             Toolkit.getDefaultToolkit().beep();
             return;
         }
+        inFlight++;
+        drainTimer.start();
+    }
 
-        swapping = true;
-
-        ImageButton a = selected;
-        ImageButton b = other;
+    /** 每帧一次：取出逻辑线程发来的全部事件，空闲时开始播放；没有等待中的结果时停表 */
+    private void drain() {
+        logic.drainEvents(pending::add);
+        if (!playing) playNext();
+        if (inFlight == 0 && !hintRequested) drainTimer.stop();
+    }
 
-        // 动画完成后的回调：做三消判定与解锁
-        Runnable onComplete = () -> {
-            Container parent = a.getParent();
-            if (parent instanceof JPanel) {
-                Match3Manager.removeMatches((JPanel) parent);
+    /** 按顺序播放事件；队列空时解除播放状态，全部播放完后重新计时提示 */
+    private void playNext() {
+        while (true) {
+            BoardEvent e = pending.poll();
+            if (e == null) {
+                playing = false;
+                if (inFlight == 0) hintTimer.restart();
+                return;
+            }
+            playing = true;
+            switch (e.kind) {
+                case BoardEvent.SWAP:
+                    SoundManager.playMove();
+                    view.animateSwap(e.a, e.b, durationMs, this::playNext);
+                    return;
+                case BoardEvent.STEP:
+                    SoundManager.playDestroy();
+                    view.animateStep(e.step, STEP_DURATION_MS, this::playNext);
+                    return;
+                case BoardEvent.SHUFFLE:
+                    view.animateShuffle(e.perm, SHUFFLE_DURATION_MS, this::playNext);
+                    return;
+                case BoardEvent.REJECT:
+                    Toolkit.getDefaultToolkit().beep();
+                    inFlight--;
+                    break;
+                case BoardEvent.END:
+                    inFlight--;
+                    break;
+                case BoardEvent.RESTORE:
+                    view.showCells(e.cells, e.types);
+                    inFlight--;
+                    break;
+                case BoardEvent.HINT:
+                    hintRequested = false;
+                    if (e.a >= 0 && inFlight == 0 && view.getSelected() < 0) view.setHint(e.a, e.b);
+                    break;
+                default:
+                    break;
             }
-            swapping = false;
-        };
-
-        // 发起交换（相邻检查、动画与吸附在 ImageButton 内部完成）
-        a.swapWith(b, durationMs, onComplete);
-
-        // 取消高亮并清理选择状态
-        a.setReady(false);
-        selected = null;
-
-        // 如果动画真的启动了（相邻且通过校验），播放移动音效；
-        // 否则解除节流（不相邻时 swapWith 会立即返回且不会置 animating）
-        if (a.isAnimating() || b.isAnimating()) {
-            SoundManager.playMove();
-        } else {
-            swapping = false;
         }
     }
 }
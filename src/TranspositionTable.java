@@ -0,0 +1,42 @@
+/**
+ * 固定容量、无锁的置换表：哈希 -> 估值（double）。
+ * 采用“键异或值”的写法：keys[i] = hash ^ bits，读取时用 keys[i] ^ values[i] 校验，
+ * 多线程并发写入撕裂的条目只会表现为未命中，不需要加锁。新条目总是覆盖旧条目。
+ */
+public final class TranspositionTable {
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+
+    /** @param capacityLog2 容量为 2^capacityLog2 个条目 */
+    public TranspositionTable(int capacityLog2) {
+        if (capacityLog2 < 1 || capacityLog2 > 28) throw new IllegalArgumentException("capacityLog2 out of range");
+        int capacity = 1 << capacityLog2;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /** 命中返回估值，否则返回 NaN */
+    public double get(long hash) {
+        int i = index(hash);
+        long v = values[i];
+        return (keys[i] ^ v) == hash ? Double.longBitsToDouble(v) : Double.NaN;
+    }
+
+    public void put(long hash, double value) {
+        int i = index(hash);
+        long v = Double.doubleToRawLongBits(value);
+        values[i] = v;
+        keys[i] = hash ^ v;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0L);
+        java.util.Arrays.fill(values, 0L);
+    }
+
+    private int index(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist 哈希：为每个 (格子, 类型) 预先生成一个随机 64 位数，棋盘哈希为所有格子对应值的异或。
+ * 交换两格时可用 {@link #swapDelta} 增量更新，其它改动逐格异或 {@link #key}（旧类型与新类型各一次）。
+ * 表按调色板大小分配：类型 id 先映射成调色板内的稠密下标，每格只占调色板种类数个 long，而不是 MAX_TYPES 个。
+ */
+public final class Zobrist {
+    private final int cells;
+    private final int stride;       // 调色板里不同类型的个数
+    private final byte[] slot;      // 类型 id -> 稠密下标；不在调色板里为 -1
+    private final long[] table;     // [cell * stride + slot[type]]
+
+    /**
+     * @param palette 棋盘上可能出现的全部类型（可含重复）
+     */
+    public Zobrist(int cells, byte[] palette, long seed) {
+        this.cells = cells;
+        this.slot = new byte[Board.MAX_TYPES];
+        Arrays.fill(slot, (byte) -1);
+        int n = 0;
+        for (byte t : palette) {
+            if (t == Board.EMPTY) throw new IllegalArgumentException("Palette contains EMPTY.");
+            if (slot[t] < 0) slot[t] = (byte) n++;
+        }
+        this.stride = n;
+        this.table = new long[Math.multiplyExact(cells, n)];
+        SplittableRandom rng = new SplittableRandom(seed);
+        for (int i = 0; i < table.length; i++) table[i] = rng.nextLong();
+    }
+
+    public int cells() { return cells; }
+
+    /** 整盘哈希（空格不参与） */
+    public long hash(Board board) {
+        if (board.size() != cells) throw new IllegalArgumentException("Board size mismatch.");
+        long h = 0L;
+        for (int i = 0; i < cells; i++) h ^= key(i, board.get(i));
+        return h;
+    }
+
+    /** 格子 cell 为类型 type 时对哈希的贡献（空格为 0） */
+    public long key(int cell, byte type) {
+        if (type == Board.EMPTY) return 0L;
+        int s = slot[type];
+        if (s < 0) throw new IllegalArgumentException("Type not in palette: " + type);
+        return table[cell * stride + s];
+    }
+
+    /** 交换 a、b 两格（类型分别为 ta、tb）带来的哈希变化 */
+    public long swapDelta(int a, byte ta, int b, byte tb) {
+        return key(a, ta) ^ key(b, ta) ^ key(b, tb) ^ key(a, tb);
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardHistoryTest {
+
+    /**
+     * 局部改动与整盘重排交替提交，然后随机撤销 / 重做 / 跳转：
+     * 每次恢复后棋盘与当时保存的副本一致，报告的改写格子恰好是两步之间不同的格子。
+     */
+    @Test
+    void restoresEverySnapshotAfterEditsAndShuffles() {
+        Random rng = new Random(11);
+        // 33 x 31：块数不是 16 的倍数，树也不是满的
+        Board board = new Board(33, 31);
+        CascadeEngine engine = new CascadeEngine(board, GameSimulator.defaultPalette(5), 3);
+        engine.generate();
+        BoardShuffler shuffler = new BoardShuffler(board, engine.getMoveGenerator(), GameSimulator.defaultPalette(5));
+        BoardHistory history = new BoardHistory(board);
+        List<byte[]> snapshots = new ArrayList<>();
+        snapshots.add(cells(board));
+
+        for (int step = 1; step <= 40; step++) {
+            if (step % 5 == 0) {
+                assertNotNull(shuffler.reshuffle(rng), "reshuffle failed");
+                history.touchAll();
+            } else {
+                for (int k = 0; k < 1 + rng.nextInt(30); k++) {
+                    int cell = rng.nextInt(board.size());
+                    board.set(cell, board.get(rng.nextInt(board.size())));
+                    history.touch(cell);
+                }
+            }
+            history.commit();
+            snapshots.add(cells(board));
+        }
+        assertEquals(snapshots.size(), history.size());
+        assertEquals(snapshots.size() - 1, history.index());
+
+        int[] changed = new int[board.size()];
+        for (int k = 0; k < 200; k++) {
+            int target;
+            switch (k % 3) {
+                case 0: target = Math.max(0, history.index() - 1); break;                  // 撤销
+                case 1: target = Math.min(history.size() - 1, history.index() + 1); break; // 重做
+                default: target = rng.nextInt(history.size());                            // 跳转
+            }
+            byte[] before = cells(board);
+            int n = history.restore(target, changed);
+            assertEquals(target, history.index());
+            assertArrayEquals(snapshots.get(target), cells(board), "board differs at snapshot " + target);
+            assertEquals(diffCount(before, snapshots.get(target)), n, "changed-cell count at snapshot " + target);
+            for (int i = 0; i < n; i++) assertTrue(before[changed[i]] != board.get(changed[i]));
+        }
+    }
+
+    /** 撤销后提交新的一步会丢掉原来的重做记录，旧快照不受影响 */
+    @Test
+    void commitAfterUndoDropsRedo() {
+        Board board = new Board(4, 4);
+        for (int i = 0; i < board.size(); i++) board.set(i, (byte) (i % 3));
+        BoardHistory history = new BoardHistory(board);
+        byte[] initial = cells(board);
+
+        board.set(0, (byte) 2);
+        history.touch(0);
+        history.commit();
+        board.set(5, (byte) 0);
+        history.touch(5);
+        history.commit();
+        byte[] second = cells(board);
+
+        history.restore(1, null);
+        assertTrue(history.canRedo());
+        board.set(15, (byte) 1);
+        history.touch(15);
+        history.commit();
+        assertFalse(history.canRedo());
+        assertEquals(3, history.size());
+
+        history.restore(0, null);
+        assertArrayEquals(initial, cells(board));
+        assertFalse(Arrays.equals(second, cells(board)));
+    }
+
+    @Test
+    void rejectsRestoreWithUncommittedChanges() {
+        Board board = new Board(3, 3);
+        BoardHistory history = new BoardHistory(board);
+        history.touch(4);
+        assertThrows(IllegalStateException.class, () -> history.restore(0, null));
+        assertThrows(IllegalArgumentException.class, () -> new BoardHistory(board).restore(1, null));
+    }
+
+    private static byte[] cells(Board board) {
+        byte[] out = new byte[board.size()];
+        board.copyTo(out);
+        return out;
+    }
+
+    private static int diffCount(byte[] a, byte[] b) {
+        int n = 0;
+        for (int i = 0; i < a.length; i++) if (a[i] != b[i]) n++;
+        return n;
+    }
+}
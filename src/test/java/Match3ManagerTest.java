@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量判定与全盘扫描的交叉校验（原先是生产代码里的断言）。
+ */
+class Match3ManagerTest {
+
+    /**
+     * 随机棋盘上随机交换并连消：交换后、以及每一步连消之后，
+     * 只从改动格出发的 {@link Match3Manager#findMatchesAt} 必须与 {@link Match3Manager#findMatches} 完全一致。
+     */
+    @Test
+    void incrementalMatchesAgreeWithFullScanThroughCascades() {
+        int[][] shapes = {{8, 8}, {5, 9}, {12, 3}, {3, 12}, {16, 16}};
+        Random rng = new Random(42);
+        for (int[] shape : shapes) {
+            for (int types = 3; types <= 6; types++) {
+                Board board = new Board(shape[0], shape[1]);
+                CascadeEngine engine = new CascadeEngine(board, GameSimulator.defaultPalette(types), rng.nextLong());
+                engine.generate();
+                Board mirror = board.copy();
+                MatchSet incremental = new MatchSet(board.size());
+                MatchSet full = new MatchSet(board.size());
+                int[] changed = new int[board.size()];
+
+                for (int move = 0; move < 40; move++) {
+                    int a = rng.nextInt(board.size());
+                    int b = board.colOf(a) + 1 < board.cols() && (rng.nextBoolean() || board.rowOf(a) + 1 >= board.rows())
+                            ? a + 1 : a + board.cols();
+                    if (b >= board.size()) continue;
+
+                    // 交换：起点是交换的两格
+                    board.swap(a, b);
+                    mirror.swap(a, b);
+                    changed[0] = a;
+                    changed[1] = b;
+                    assertSame(mirror, changed, 2, incremental, full);
+
+                    // 连消：在镜像棋盘上逐步重放，每步的起点是下落终点与补充格（与 CascadeEngine 相同）
+                    List<CascadeStep> steps = engine.resolve(new int[]{a, b}, 2);
+                    for (CascadeStep step : steps) {
+                        int count = apply(mirror, step, changed);
+                        assertSame(mirror, changed, count, incremental, full);
+                    }
+                    assertEquals(0, Match3Manager.findMatches(board, full), "board left with live matches");
+                    assertBoardsEqual(board, mirror);
+                }
+            }
+        }
+    }
+
+    /**
+     * 放得进 64 位的任意棋盘（含空格、含现成的消除）上，{@link Match3Manager#findMatchesFast} 的位棋盘实现
+     * 必须与数组实现给出同一组格子；同一个 MatchSet 在不同尺寸间复用，覆盖位棋盘的重建。
+     */
+    @Test
+    void bitboardMatchesAgreeWithFullScan() {
+        Random rng = new Random(7);
+        int[][] shapes = {{8, 8}, {1, 64}, {64, 1}, {4, 16}, {7, 9}, {3, 3}, {2, 5}};
+        MatchSet fast = new MatchSet(64);
+        MatchSet full = new MatchSet(64);
+        for (int[] shape : shapes) {
+            Board board = new Board(shape[0], shape[1]);
+            assertTrue(BitBoard.fits(board));
+            for (int types = 1; types <= 6; types++) {
+                byte[] palette = GameSimulator.defaultPalette(Math.max(types, Match3Manager.MIN_MATCH));
+                for (int round = 0; round < 500; round++) {
+                    for (int i = 0; i < board.size(); i++) {
+                        board.set(i, rng.nextInt(8) == 0 ? Board.EMPTY : palette[rng.nextInt(types)]);
+                    }
+                    int found = Match3Manager.findMatchesFast(board, fast);
+                    assertEquals(Match3Manager.findMatches(board, full), found, "bitboard match count differs from full scan");
+                    for (int k = 0; k < full.size(); k++) {
+                        assertTrue(fast.contains(full.get(k)), "cell " + full.get(k) + " missed by bitboard scan");
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSame(Board board, int[] changed, int count, MatchSet incremental, MatchSet full) {
+        int found = Match3Manager.findMatchesAt(board, changed, count, incremental);
+        assertEquals(Match3Manager.findMatches(board, full), found, "incremental match count differs from full scan");
+        for (int k = 0; k < full.size(); k++) {
+            assertTrue(incremental.contains(full.get(k)), "cell " + full.get(k) + " missed by incremental scan");
+        }
+    }
+
+    /** 把一步连消写到 board 上，返回下一轮判定的起点格数 */
+    private static int apply(Board board, CascadeStep step, int[] changed) {
+        for (int cell : step.removed) board.set(cell, Board.EMPTY);
+        int count = 0;
+        for (int i = 0; i < step.moveCount(); i++) {
+            board.set(step.moveTo[i], board.get(step.moveFrom[i]));
+            board.set(step.moveFrom[i], Board.EMPTY);
+            changed[count++] = step.moveTo[i];
+        }
+        for (int i = 0; i < step.spawnCount(); i++) {
+            board.set(step.spawnCell[i], step.spawnType[i]);
+            changed[count++] = step.spawnCell[i];
+        }
+        return count;
+    }
+
+    private static void assertBoardsEqual(Board expected, Board actual) {
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), actual.get(i), "cell " + i);
+    }
+}
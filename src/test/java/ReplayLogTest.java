@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplayLogTest {
+
+    /**
+     * 记录一局（交换、撤销、重做、跳转混在一起），读回后操作序列相同，
+     * 从文件头新开一局重放到任意一步都与当时的棋盘一致。
+     * 100x100 的交换编码需要 3 字节 varint。
+     */
+    @Test
+    void writeThenReadReproducesTheGame() throws IOException {
+        for (int[] shape : new int[][]{{8, 8}, {100, 100}}) {
+            GameSession session = new GameSession(shape[0], shape[1], GameSimulator.defaultPalette(5), 1234L);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            session.setRecorder(ReplayLog.Writer.wrap(bytes, session));
+
+            Random rng = new Random(shape[0]);
+            List<byte[]> boards = new ArrayList<>();
+            List<Integer> ops = new ArrayList<>();
+            boards.add(cells(session.getBoard()));
+            for (int k = 0; k < 60; k++) {
+                int r = rng.nextInt(10);
+                if (r == 0 && session.canUndo()) {
+                    session.undo();
+                    ops.add(ReplayLog.UNDO);
+                } else if (r == 1 && session.canRedo()) {
+                    session.redo();
+                    ops.add(ReplayLog.REDO);
+                } else if (r == 2 && session.historySize() > 2) {
+                    int from = session.historyIndex(), to = rng.nextInt(session.historySize());
+                    session.jumpTo(to);
+                    for (int i = from; i > to; i--) ops.add(ReplayLog.UNDO);
+                    for (int i = from; i < to; i++) ops.add(ReplayLog.REDO);
+                    for (int i = 0; i < Math.abs(from - to); i++) boards.add(null); // 中间步不单独核对
+                    boards.set(boards.size() - 1, cells(session.getBoard()));
+                    continue;
+                } else {
+                    MoveGenerator gen = session.getEngine().getMoveGenerator();
+                    int count = gen.generate();
+                    if (count == 0) break;
+                    int move = gen.move(rng.nextInt(count));
+                    session.applyMove(move);
+                    ops.add(move);
+                }
+                boards.add(cells(session.getBoard()));
+            }
+
+            ReplayLog log = ReplayLog.read(new ByteArrayInputStream(bytes.toByteArray()));
+            assertEquals(shape[0], log.rows());
+            assertEquals(shape[1], log.cols());
+            assertEquals(1234L, log.seed());
+            assertEquals(ops.size(), log.moveCount());
+            for (int k = 0; k < ops.size(); k++) assertEquals((int) ops.get(k), log.move(k), "op " + k);
+
+            GameSession replay = log.newSession();
+            assertArrayEquals(boards.get(0), cells(replay.getBoard()));
+            for (int k = 0; k < log.moveCount(); k++) {
+                log.apply(replay, k);
+                if (boards.get(k + 1) != null) {
+                    assertArrayEquals(boards.get(k + 1), cells(replay.getBoard()), "board after op " + k);
+                }
+            }
+            assertArrayEquals(cells(session.getBoard()), cells(log.playTo(log.moveCount()).getBoard()));
+        }
+    }
+
+    /** 撤销在文件里写作 0、重做写作 1（单字节 varint），交换写作编码 + 2 */
+    @Test
+    void encodesUndoAsZeroAndRedoAsOne() throws IOException {
+        GameSession session = new GameSession(8, 8, GameSimulator.defaultPalette(5), 7L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayLog.Writer writer = ReplayLog.Writer.wrap(bytes, session);
+        int header = bytes.size();
+        writer.append(ReplayLog.UNDO);
+        writer.append(ReplayLog.REDO);
+        writer.append(5);
+        writer.close();
+
+        byte[] data = bytes.toByteArray();
+        assertArrayEquals(new byte[]{0, 1, 7}, Arrays.copyOfRange(data, header, data.length));
+        ReplayLog log = ReplayLog.read(new ByteArrayInputStream(data));
+        assertEquals(ReplayLog.UNDO, log.move(0));
+        assertEquals(ReplayLog.REDO, log.move(1));
+        assertEquals(5, log.move(2));
+    }
+
+    @Test
+    void rejectsOtherVersionsAndCorruptMoves() throws IOException {
+        GameSession session = new GameSession(8, 8, GameSimulator.defaultPalette(5), 7L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReplayLog.Writer.wrap(bytes, session).close();
+        byte[] data = bytes.toByteArray();
+
+        byte[] otherVersion = data.clone();
+        otherVersion[3]--;
+        assertThrows(IOException.class, () -> ReplayLog.read(new ByteArrayInputStream(otherVersion)));
+
+        // 8x8 的交换编码小于 128，写作 128 + 2 即越界
+        byte[] corrupt = Arrays.copyOf(data, data.length + 2);
+        corrupt[data.length] = (byte) 0x82;
+        corrupt[data.length + 1] = 0x01;
+        assertThrows(IOException.class, () -> ReplayLog.read(new ByteArrayInputStream(corrupt)));
+    }
+
+    private static byte[] cells(Board board) {
+        byte[] out = new byte[board.size()];
+        board.copyTo(out);
+        return out;
+    }
+}
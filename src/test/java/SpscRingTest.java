@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpscRingTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new SpscRing<Integer>(1).capacity());
+        assertEquals(8, new SpscRing<Integer>(5).capacity());
+        assertEquals(64, new SpscRing<Integer>(64).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SpscRing<Integer>(0));
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterPoll() {
+        SpscRing<Integer> ring = new SpscRing<>(4);
+        for (int i = 0; i < 4; i++) assertTrue(ring.offer(i));
+        assertFalse(ring.offer(99), "offer must fail when full");
+        assertEquals(4, ring.size());
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        assertFalse(ring.offer(100));
+        for (int i = 1; i <= 4; i++) assertEquals(i, ring.poll());
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    /** 下标绕回很多圈后仍然先进先出，poll 与 drain 交替使用 */
+    @Test
+    void keepsFifoOrderAcrossWrapAround() {
+        SpscRing<Integer> ring = new SpscRing<>(8);
+        List<Integer> out = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 1000; round++) {
+            int burst = 1 + round % 8;
+            for (int k = 0; k < burst; k++) assertTrue(ring.offer(next++));
+            if (round % 2 == 0) {
+                while (!ring.isEmpty()) out.add(ring.poll());
+            } else {
+                int limit = 1 + round % 3;
+                while (!ring.isEmpty()) {
+                    int n = ring.drain(out::add, limit);
+                    assertTrue(n > 0 && n <= limit);
+                }
+            }
+        }
+        assertEquals(next, out.size());
+        for (int i = 0; i < out.size(); i++) assertEquals(i, out.get(i));
+    }
+
+    /** 一个生产者线程、一个消费者线程：不丢、不重、不乱序 */
+    @Test
+    void transfersEveryElementBetweenTwoThreads() throws InterruptedException {
+        final int count = 200_000;
+        SpscRing<Integer> ring = new SpscRing<>(16);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!ring.offer(i)) Thread.yield();
+            }
+        }, "SpscRingTest-producer");
+        producer.start();
+
+        int expected = 0;
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (expected < count) {
+            Integer e = ring.poll();
+            if (e == null) {
+                assertTrue(System.nanoTime() < deadline, "timed out at element " + expected);
+                Thread.yield();
+                continue;
+            }
+            assertEquals(expected++, e);
+        }
+        producer.join();
+        assertNull(ring.poll());
+    }
+}